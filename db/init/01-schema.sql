@@ -8,7 +8,8 @@ CREATE TABLE IF NOT EXISTS users (
     email VARCHAR(100) NOT NULL UNIQUE,
     full_name VARCHAR(100),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    role VARCHAR(20) DEFAULT 'ROLE_USER'
+    role VARCHAR(20) DEFAULT 'ROLE_USER',
+    data_version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Tabela de categorias
@@ -21,11 +22,17 @@ CREATE TABLE IF NOT EXISTS categories (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Sequência das transações (incremento 50 para alocação em bloco pelo Hibernate)
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
 -- Tabela de transações
 CREATE TABLE IF NOT EXISTS transactions (
-    id SERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('transactions_seq'),
     description VARCHAR(100) NOT NULL,
     amount DECIMAL(12,2) NOT NULL,
+    original_currency VARCHAR(3),
+    original_amount DECIMAL(12,2),
+    exchange_rate DECIMAL(20,10),
     date DATE NOT NULL,
     type VARCHAR(20) NOT NULL,
     notes TEXT,
@@ -53,10 +60,33 @@ CREATE TABLE IF NOT EXISTS financial_goals (
     FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL
 );
 
+-- Totais mensais pré-agregados das transações (mantidos a cada escrita)
+CREATE TABLE IF NOT EXISTS monthly_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    year_month INTEGER NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_monthly_rollups_key UNIQUE (user_id, category_id, type, year_month)
+);
+
+-- Histórico diário de taxas de câmbio (relativas à base da fonte, USD)
+CREATE TABLE IF NOT EXISTS exchange_rate_history (
+    id BIGSERIAL PRIMARY KEY,
+    currency VARCHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate DECIMAL(20,10) NOT NULL,
+    CONSTRAINT uk_exchange_rate_history_key UNIQUE (currency, rate_date)
+);
+
 -- Índices para otimização de consultas
 CREATE INDEX IF NOT EXISTS idx_transactions_user_id ON transactions(user_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_user_date_id ON transactions(user_id, date DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions(date);
 CREATE INDEX IF NOT EXISTS idx_transactions_type ON transactions(type);
 CREATE INDEX IF NOT EXISTS idx_transactions_category ON transactions(category_id);
 CREATE INDEX IF NOT EXISTS idx_categories_user_id ON categories(user_id);
 CREATE INDEX IF NOT EXISTS idx_financial_goals_user_id ON financial_goals(user_id);
+CREATE INDEX IF NOT EXISTS idx_monthly_rollups_user_month ON monthly_rollups(user_id, year_month);
@@ -1,23 +1,46 @@
 package com.dashboard.financeiro.config.cache;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
-    
-    public static final String EXCHANGE_RATES_CACHE = "exchangeRatesCache";
-    
+
+    public static final String FINANCIAL_SUMMARY_CACHE = "financialSummaryCache";
+    public static final String EXPENSES_CHART_CACHE = "expensesChartCache";
+    public static final String TREND_CHART_CACHE = "trendChartCache";
+    public static final String GOALS_CHART_CACHE = "goalsChartCache";
+    public static final String CONVERTED_SUMMARY_CACHE = "convertedSummaryCache";
+
+    /**
+     * Caches limitados em quantidade de entradas e com expiração após a escrita.
+     * As chaves dos dados do usuário incluem sua versão de dados, então escritas
+     * tornam as entradas antigas inalcançáveis sem precisar removê-las
+     */
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(EXCHANGE_RATES_CACHE));
+    public CacheManager cacheManager(
+            @Value("${app.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.cache.ttl-seconds:600}") long ttlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats());
+        cacheManager.setCacheNames(Arrays.asList(
+                FINANCIAL_SUMMARY_CACHE,
+                EXPENSES_CHART_CACHE,
+                TREND_CHART_CACHE,
+                GOALS_CHART_CACHE,
+                CONVERTED_SUMMARY_CACHE));
         return cacheManager;
     }
 }
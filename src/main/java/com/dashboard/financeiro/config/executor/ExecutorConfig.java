@@ -0,0 +1,124 @@
+package com.dashboard.financeiro.config.executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    public static final String DASHBOARD_EXECUTOR = "dashboardExecutor";
+    public static final String EXCHANGE_RATE_EXECUTOR = "exchangeRateExecutor";
+    public static final String REPORT_EXECUTOR = "reportExecutor";
+    public static final String CHART_RENDER_EXECUTOR = "chartRenderExecutor";
+    public static final String ANNUAL_SECTION_EXECUTOR = "annualSectionExecutor";
+
+    /**
+     * Executor padrão da aplicação (respostas assíncronas do MVC).
+     * Declarado aqui porque o Spring Boot deixa de criá-lo quando existe outro Executor no contexto
+     */
+    @Lazy
+    @Primary
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Pool limitado para as seções do painel consolidado.
+     * Com a fila cheia a seção é rejeitada e o painel volta parcial, sem ocupar a thread da requisição
+     */
+    @Bean(name = DASHBOARD_EXECUTOR)
+    public ThreadPoolTaskExecutor dashboardExecutor(
+            @Value("${app.dashboard.executor.core-size:4}") int coreSize,
+            @Value("${app.dashboard.executor.max-size:16}") int maxSize,
+            @Value("${app.dashboard.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Thread única para buscar taxas de câmbio, fora das threads de requisição.
+     * Só existe uma busca em andamento por vez, então a fila fica praticamente vazia
+     */
+    @Bean(name = EXCHANGE_RATE_EXECUTOR)
+    public ThreadPoolTaskExecutor exchangeRateExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("exchange-rates-");
+        return executor;
+    }
+
+    /**
+     * Pool limitado para gerar relatórios fora das threads de requisição.
+     * Com a fila cheia o pedido é rejeitado, para não competir com o tráfego interativo
+     */
+    @Bean(name = REPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor reportExecutor(
+            @Value("${app.reports.jobs.workers:2}") int workers,
+            @Value("${app.reports.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("reports-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Pool próprio para as seções mensais do relatório anual, separado do pool de jobs para que um
+     * relatório anual não ocupe a fila dos relatórios em segundo plano. Com a fila cheia a seção é
+     * rejeitada e gerada pela thread que monta o relatório, então cada relatório sempre avança
+     */
+    @Bean(name = ANNUAL_SECTION_EXECUTOR)
+    public ThreadPoolTaskExecutor annualSectionExecutor(
+            @Value("${app.reports.annual.section-workers:2}") int workers,
+            @Value("${app.reports.annual.section-queue-capacity:24}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("annual-sections-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Pool pequeno e exclusivo para desenhar gráficos (Java2D), limitando quantas renderizações
+     * disputam o AWT ao mesmo tempo. Com a fila cheia o pedido é rejeitado e falha na hora,
+     * em vez de desenhar na thread que pediu
+     */
+    @Bean(name = CHART_RENDER_EXECUTOR)
+    public ThreadPoolTaskExecutor chartRenderExecutor(
+            @Value("${app.charts.render.workers:2}") int workers,
+            @Value("${app.charts.render.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("chart-render-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
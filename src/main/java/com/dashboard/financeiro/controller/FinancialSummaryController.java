@@ -2,8 +2,13 @@ package com.dashboard.financeiro.controller;
 
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
 import com.dashboard.financeiro.service.FinancialSummaryService;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.util.ETagMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,43 +21,64 @@ import java.time.LocalDate;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class FinancialSummaryController {
 
+    // O navegador guarda a resposta, mas sempre revalida com If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private FinancialSummaryService financialSummaryService;
 
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
     public ResponseEntity<FinancialSummaryResponse> getFinancialSummary(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(
-                authentication.getName(), startDate, endDate);
-        
-        return ResponseEntity.ok(summary);
+        return summaryResponse(authentication.getName(), startDate, endDate, ifNoneMatch);
     }
     
     @GetMapping("/monthly")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<FinancialSummaryResponse> getCurrentMonthSummary(Authentication authentication) {
+    public ResponseEntity<FinancialSummaryResponse> getCurrentMonthSummary(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LocalDate startDate = LocalDate.now().withDayOfMonth(1);
         LocalDate endDate = startDate.plusMonths(1).minusDays(1);
         
-        FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(
-                authentication.getName(), startDate, endDate);
-        
-        return ResponseEntity.ok(summary);
+        return summaryResponse(authentication.getName(), startDate, endDate, ifNoneMatch);
     }
     
     @GetMapping("/annual")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<FinancialSummaryResponse> getCurrentYearSummary(Authentication authentication) {
+    public ResponseEntity<FinancialSummaryResponse> getCurrentYearSummary(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         LocalDate startDate = LocalDate.now().withDayOfYear(1);
         LocalDate endDate = startDate.plusYears(1).minusDays(1);
         
-        FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(
-                authentication.getName(), startDate, endDate);
+        return summaryResponse(authentication.getName(), startDate, endDate, ifNoneMatch);
+    }
+    
+    /**
+     * Confere o ETag (versão de dados do usuário + período) antes de calcular o resumo:
+     * se o cliente já tem a versão atual, responde 304 sem nenhuma agregação
+     */
+    private ResponseEntity<FinancialSummaryResponse> summaryResponse(
+            String username, LocalDate startDate, LocalDate endDate, String ifNoneMatch) {
+        String etag = userDataVersionService.etagForUser(username, "summary", startDate, endDate);
+        if (ETagMatcher.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        
+        FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(username, startDate, endDate);
         
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(summary);
     }
 }
@@ -1,20 +1,32 @@
 package com.dashboard.financeiro.controller;
 
+import com.dashboard.financeiro.dto.transaction.TransactionBatchRequest;
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse;
 import com.dashboard.financeiro.dto.transaction.TransactionFilterRequest;
+import com.dashboard.financeiro.dto.transaction.TransactionPageResponse;
 import com.dashboard.financeiro.dto.transaction.TransactionRequest;
 import com.dashboard.financeiro.dto.transaction.TransactionResponse;
-import com.dashboard.financeiro.model.Category;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
 import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.service.TransactionService;
+import com.dashboard.financeiro.util.TransactionCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,8 +34,20 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class TransactionController {
 
+    // Quantidade de linhas NDJSON escritas entre flushes da resposta
+    private static final int NDJSON_FLUSH_INTERVAL = 500;
+
     @Autowired
     private TransactionService transactionService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.transactions.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.transactions.page.max-size:500}")
+    private int maxPageSize;
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -31,47 +55,125 @@ public class TransactionController {
             @Valid @RequestBody TransactionRequest transactionRequest,
             Authentication authentication) {
         
-        Transaction transaction = new Transaction();
-        transaction.setAmount(transactionRequest.getAmount());
-        transaction.setType(transactionRequest.getType());
-        transaction.setDate(transactionRequest.getDate());
-        transaction.setDescription(transactionRequest.getDescription());
-        
-        Category category = new Category();
-        category.setId(transactionRequest.getCategoryId());
-        transaction.setCategory(category);
+        Transaction transaction = transactionRequest.toEntity();
         
         Transaction savedTransaction = transactionService.save(transaction, authentication.getName());
         
         return new ResponseEntity<>(TransactionResponse.fromEntity(savedTransaction), HttpStatus.CREATED);
     }
     
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<TransactionBatchResponse> createTransactionsBatch(
+            @Valid @RequestBody TransactionBatchRequest batchRequest,
+            Authentication authentication) {
+        
+        TransactionBatchResponse response = transactionService.saveBatch(
+                batchRequest.getTransactions(), authentication.getName());
+        
+        // 207 indica que parte das linhas foi rejeitada; o detalhe está em cada resultado
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(response, status);
+    }
+    
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
     public ResponseEntity<List<TransactionResponse>> getAllTransactions(Authentication authentication) {
-        List<Transaction> transactions = transactionService.findAllByUser(authentication.getName());
+        List<TransactionView> transactions = transactionService.findAllByUser(authentication.getName());
         
         List<TransactionResponse> transactionResponses = transactions.stream()
-                .map(TransactionResponse::fromEntity)
+                .map(TransactionResponse::fromView)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(transactionResponses);
     }
     
+    /**
+     * Listagem paginada por cursor (keyset): o custo de cada página independe
+     * do tamanho do histórico do usuário
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<TransactionPageResponse> getTransactionsPage(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            Authentication authentication) {
+        
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        
+        TransactionCursor afterCursor;
+        try {
+            afterCursor = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        Slice<TransactionView> page = transactionService.findPageByUser(
+                authentication.getName(), afterCursor, pageSize);
+        
+        List<TransactionResponse> transactionResponses = page.getContent().stream()
+                .map(TransactionResponse::fromView)
+                .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (page.hasNext() && !page.getContent().isEmpty()) {
+            TransactionView last = page.getContent().get(page.getContent().size() - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        
+        return ResponseEntity.ok(TransactionPageResponse.builder()
+                .transactions(transactionResponses)
+                .size(pageSize)
+                .hasMore(page.hasNext())
+                .nextCursor(nextCursor)
+                .build());
+    }
+    
+    /**
+     * Exportação de todo o histórico em NDJSON (Accept: application/x-ndjson).
+     * As linhas são lidas por cursor e escritas à medida que chegam do banco
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllTransactions(Authentication authentication) {
+        String username = authentication.getName();
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonBody(consumer -> transactionService.streamAllByUser(username, consumer)));
+    }
+    
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByFilter(
+            @ModelAttribute TransactionFilterRequest filterRequest,
+            Authentication authentication) {
+        String username = authentication.getName();
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjsonBody(consumer -> transactionService.streamByFilters(
+                        username,
+                        filterRequest.getCategoryId(),
+                        filterRequest.getStartDate(),
+                        filterRequest.getEndDate(),
+                        consumer)));
+    }
+    
     @GetMapping("/filter")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
     public ResponseEntity<List<TransactionResponse>> getTransactionsByFilter(
             @ModelAttribute TransactionFilterRequest filterRequest,
             Authentication authentication) {
         
-        List<Transaction> transactions = transactionService.findByFilters(
+        List<TransactionView> transactions = transactionService.findByFilters(
                 authentication.getName(), 
                 filterRequest.getCategoryId(), 
                 filterRequest.getStartDate(), 
                 filterRequest.getEndDate());
         
         List<TransactionResponse> transactionResponses = transactions.stream()
-                .map(TransactionResponse::fromEntity)
+                .map(TransactionResponse::fromView)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(transactionResponses);
@@ -94,15 +196,7 @@ public class TransactionController {
             @Valid @RequestBody TransactionRequest transactionRequest,
             Authentication authentication) {
         
-        Transaction transaction = new Transaction();
-        transaction.setAmount(transactionRequest.getAmount());
-        transaction.setType(transactionRequest.getType());
-        transaction.setDate(transactionRequest.getDate());
-        transaction.setDescription(transactionRequest.getDescription());
-        
-        Category category = new Category();
-        category.setId(transactionRequest.getCategoryId());
-        transaction.setCategory(category);
+        Transaction transaction = transactionRequest.toEntity();
         
         Transaction updatedTransaction = transactionService.update(id, transaction, authentication.getName());
         
@@ -118,4 +212,23 @@ public class TransactionController {
         transactionService.delete(id, authentication.getName());
         return ResponseEntity.noContent().build();
     }
+    
+    // Escreve uma transação por linha; o primeiro flush ocorre logo na primeira linha
+    private StreamingResponseBody ndjsonBody(Consumer<Consumer<TransactionView>> source) {
+        return outputStream -> {
+            int[] written = {0};
+            source.accept(transaction -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(TransactionResponse.fromView(transaction)));
+                    outputStream.write('\n');
+                    if (++written[0] == 1 || written[0] % NDJSON_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+    }
 }
@@ -0,0 +1,67 @@
+package com.dashboard.financeiro.controller.admin;
+
+import com.dashboard.financeiro.dto.admin.CacheStatsResponse;
+import com.dashboard.financeiro.dto.admin.CacheStatsResponse.CacheStats;
+import com.dashboard.financeiro.service.chart.ChartRenderingService;
+import com.dashboard.financeiro.service.report.ReportCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class CacheAdminController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private ChartRenderingService chartRenderingService;
+
+    /**
+     * Endpoint para consultar acertos, faltas e remoções de cada cache
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsResponse> getCacheStats() {
+        List<CacheStats> caches = new ArrayList<>();
+
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            com.github.benmanes.caffeine.cache.stats.CacheStats stats = nativeCache.stats();
+
+            caches.add(CacheStats.builder()
+                    .name(name)
+                    .hitCount(stats.hitCount())
+                    .missCount(stats.missCount())
+                    .evictionCount(stats.evictionCount())
+                    .hitRate(stats.hitRate())
+                    .estimatedSize(nativeCache.estimatedSize())
+                    .build());
+        }
+
+        // Cache de PDFs em disco e de gráficos renderizados
+        caches.add(reportCacheService.stats());
+        caches.add(chartRenderingService.stats());
+
+        return ResponseEntity.ok(CacheStatsResponse.builder()
+                .caches(caches)
+                .build());
+    }
+}
@@ -0,0 +1,52 @@
+package com.dashboard.financeiro.controller.admin;
+
+import com.dashboard.financeiro.dto.admin.ExchangeRateBackfillRequest;
+import com.dashboard.financeiro.service.currency.ExchangeRateHistoryService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/exchange-rates")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ExchangeRateAdminController {
+
+    @Autowired
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+
+    /**
+     * Endpoint para importar em lote o histórico diário de taxas de câmbio.
+     * Dias com base diferente de USD são convertidos para USD e precisam trazer a taxa do USD
+     */
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfill(@Valid @RequestBody ExchangeRateBackfillRequest request) {
+        int rows;
+        try {
+            rows = exchangeRateHistoryService.importDays(request.getDays());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("days", request.getDays().size());
+        response.put("rows", rows);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint para gravar imediatamente as taxas atuais no histórico do dia
+     */
+    @PostMapping("/snapshot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> snapshot() {
+        exchangeRateHistoryService.snapshotCurrentRates();
+        return ResponseEntity.noContent().build();
+    }
+}
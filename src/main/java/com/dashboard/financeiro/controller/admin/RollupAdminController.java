@@ -0,0 +1,44 @@
+package com.dashboard.financeiro.controller.admin;
+
+import com.dashboard.financeiro.dto.admin.RollupVerificationResponse;
+import com.dashboard.financeiro.service.rollup.MonthlyRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/rollups")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class RollupAdminController {
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    /**
+     * Endpoint para comparar o rollup mensal com os totais das transações
+     */
+    @GetMapping("/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RollupVerificationResponse> verify() {
+        return ResponseEntity.ok(monthlyRollupService.verify());
+    }
+
+    /**
+     * Endpoint para recalcular o rollup mensal de um usuário ou de todos
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuild(@RequestParam(required = false) Long userId) {
+        int rows = monthlyRollupService.rebuild(userId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("rows", rows);
+
+        return ResponseEntity.ok(response);
+    }
+}
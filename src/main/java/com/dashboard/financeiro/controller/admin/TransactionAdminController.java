@@ -0,0 +1,33 @@
+package com.dashboard.financeiro.controller.admin;
+
+import com.dashboard.financeiro.service.currency.TransactionCurrencyBackfillService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/transactions")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class TransactionAdminController {
+
+    @Autowired
+    private TransactionCurrencyBackfillService transactionCurrencyBackfillService;
+
+    /**
+     * Endpoint para preencher moeda e valor originais das transações antigas (registradas em BRL)
+     */
+    @PostMapping("/currency-backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillCurrency() {
+        int rows = transactionCurrencyBackfillService.backfill();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("rows", rows);
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,26 +2,56 @@ package com.dashboard.financeiro.controller.chart;
 
 import com.dashboard.financeiro.dto.chart.CategoryExpenseChartDto;
 import com.dashboard.financeiro.dto.chart.ChartDateRangeRequest;
+import com.dashboard.financeiro.dto.chart.DashboardChartsDto;
 import com.dashboard.financeiro.dto.chart.GoalsProgressChartDto;
 import com.dashboard.financeiro.dto.chart.MonthlyTrendChartDto;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
 import com.dashboard.financeiro.service.chart.ChartDataService;
+import com.dashboard.financeiro.service.chart.ChartRenderingService;
+import com.dashboard.financeiro.service.chart.ChartRenderingService.ChartFormat;
+import com.dashboard.financeiro.service.chart.DashboardChartsService;
+import com.dashboard.financeiro.util.ETagMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/charts")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ChartDataController {
 
+    // O navegador guarda a resposta, mas sempre revalida com If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Limites das dimensões aceitas para imagens de gráficos
+    private static final int MIN_IMAGE_SIZE = 100;
+    private static final int MAX_IMAGE_SIZE = 2000;
+
     @Autowired
     private ChartDataService chartDataService;
 
+    @Autowired
+    private DashboardChartsService dashboardChartsService;
+
+    @Autowired
+    private ChartRenderingService chartRenderingService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
     /**
      * Endpoint para obter dados formatados para gráfico de distribuição de despesas por categoria
      */
@@ -30,12 +60,54 @@ public class ChartDataController {
     public ResponseEntity<CategoryExpenseChartDto> getExpensesByCategory(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        CategoryExpenseChartDto chartData = chartDataService.getExpensesByCategory(
-                authentication.getName(), startDate, endDate);
+        String username = authentication.getName();
+        String etag = userDataVersionService.etagForUser(username, "expenses-by-category", startDate, endDate);
         
-        return ResponseEntity.ok(chartData);
+        return conditionalResponse(etag, ifNoneMatch, () -> chartDataService.getExpensesByCategory(
+                chartDataService.findUserId(username), startDate, endDate));
+    }
+    
+    /**
+     * Endpoint para obter o gráfico de despesas por categoria como imagem PNG.
+     * A imagem vem do cache de gráficos renderizados quando os dados e as dimensões se repetem
+     */
+    @GetMapping(value = "/expenses-by-category/image", produces = MediaType.IMAGE_PNG_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<byte[]> getExpensesByCategoryImage(
+            Authentication authentication,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "500") int width,
+            @RequestParam(defaultValue = "300") int height,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        if (width < MIN_IMAGE_SIZE || width > MAX_IMAGE_SIZE || height < MIN_IMAGE_SIZE || height > MAX_IMAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        String username = authentication.getName();
+        String etag = userDataVersionService.etagForUser(username, "expenses-by-category-image",
+                startDate, endDate, width, height);
+        
+        try {
+            return conditionalResponse(etag, ifNoneMatch, () -> {
+                CategoryExpenseChartDto chartData = chartDataService.getExpensesByCategory(
+                        chartDataService.findUserId(username), startDate, endDate);
+                
+                Map<String, BigDecimal> slices = new LinkedHashMap<>();
+                for (CategoryExpenseChartDto.CategoryData category : chartData.getCategories()) {
+                    slices.merge(category.getCategoryName(), category.getAmount(), BigDecimal::add);
+                }
+                
+                return chartRenderingService.renderPieChart("Despesas por Categoria", slices,
+                        width, height, ChartFormat.PNG);
+            });
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
     
     /**
@@ -73,7 +145,7 @@ public class ChartDataController {
         }
         
         CategoryExpenseChartDto chartData = chartDataService.getExpensesByCategory(
-                authentication.getName(), startDate, endDate);
+                chartDataService.findUserId(authentication.getName()), startDate, endDate);
         
         return ResponseEntity.ok(chartData);
     }
@@ -85,12 +157,14 @@ public class ChartDataController {
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
     public ResponseEntity<MonthlyTrendChartDto> getIncomeExpenseTrend(
             Authentication authentication,
-            @RequestParam(required = false) Integer months) {
+            @RequestParam(required = false) Integer months,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        MonthlyTrendChartDto chartData = chartDataService.getMonthlyTrend(
-                authentication.getName(), months);
+        String username = authentication.getName();
+        String etag = userDataVersionService.etagForUser(username, "income-expense-trend", months);
         
-        return ResponseEntity.ok(chartData);
+        return conditionalResponse(etag, ifNoneMatch, () -> chartDataService.getMonthlyTrend(
+                chartDataService.findUserId(username), months));
     }
     
     /**
@@ -120,7 +194,7 @@ public class ChartDataController {
         }
         
         MonthlyTrendChartDto chartData = chartDataService.getMonthlyTrend(
-                authentication.getName(), months);
+                chartDataService.findUserId(authentication.getName()), months);
         
         return ResponseEntity.ok(chartData);
     }
@@ -130,12 +204,15 @@ public class ChartDataController {
      */
     @GetMapping("/goals-progress")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<GoalsProgressChartDto> getGoalsProgress(Authentication authentication) {
+    public ResponseEntity<GoalsProgressChartDto> getGoalsProgress(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        GoalsProgressChartDto chartData = chartDataService.getGoalsProgress(
-                authentication.getName());
+        String username = authentication.getName();
+        String etag = userDataVersionService.etagForUser(username, "goals-progress");
         
-        return ResponseEntity.ok(chartData);
+        return conditionalResponse(etag, ifNoneMatch, () -> chartDataService.getGoalsProgress(
+                chartDataService.findUserId(username)));
     }
     
     /**
@@ -144,11 +221,12 @@ public class ChartDataController {
      */
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<DashboardChartsData> getDashboardChartsData(
+    public ResponseEntity<DashboardChartsDto> getDashboardChartsData(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(required = false) Integer months) {
+            @RequestParam(required = false) Integer months,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         // Se datas não forem fornecidas, usar mês atual
         if (startDate == null) {
@@ -162,21 +240,28 @@ public class ChartDataController {
             months = 12;
         }
         
-        // Buscar dados para cada gráfico
-        CategoryExpenseChartDto expensesData = chartDataService.getExpensesByCategory(
-                authentication.getName(), startDate, endDate);
-        
-        MonthlyTrendChartDto trendData = chartDataService.getMonthlyTrend(
-                authentication.getName(), months);
+        // Conferido antes de disparar as seções: painel inalterado custa só a leitura da versão
+        String username = authentication.getName();
+        String etag = userDataVersionService.etagForUser(username, "dashboard", startDate, endDate, months);
+        if (ETagMatcher.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         
-        GoalsProgressChartDto goalsData = chartDataService.getGoalsProgress(
-                authentication.getName());
+        // Seções calculadas em paralelo; as que falharem vêm nulas e listadas em errors
+        DashboardChartsDto dashboardData = dashboardChartsService.getDashboardCharts(
+                username, startDate, endDate, months);
         
-        // Consolidar todos os dados em um objeto
-        DashboardChartsData dashboardData = new DashboardChartsData(
-                expensesData, trendData, goalsData);
+        // Painel parcial não recebe ETag, para que a próxima consulta tente as seções novamente
+        if (dashboardData.isPartial()) {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .body(dashboardData);
+        }
         
-        return ResponseEntity.ok(dashboardData);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(dashboardData);
     }
     
     /**
@@ -184,7 +269,7 @@ public class ChartDataController {
      */
     @PostMapping("/dashboard")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<DashboardChartsData> postDashboardChartsData(
+    public ResponseEntity<DashboardChartsDto> postDashboardChartsData(
             Authentication authentication,
             @RequestBody ChartDateRangeRequest request) {
         
@@ -229,50 +314,25 @@ public class ChartDataController {
             months = 12;
         }
         
-        // Buscar dados para cada gráfico
-        CategoryExpenseChartDto expensesData = chartDataService.getExpensesByCategory(
-                authentication.getName(), startDate, endDate);
-        
-        MonthlyTrendChartDto trendData = chartDataService.getMonthlyTrend(
-                authentication.getName(), months);
-        
-        GoalsProgressChartDto goalsData = chartDataService.getGoalsProgress(
-                authentication.getName());
-        
-        // Consolidar todos os dados em um objeto
-        DashboardChartsData dashboardData = new DashboardChartsData(
-                expensesData, trendData, goalsData);
+        // Seções calculadas em paralelo; as que falharem vêm nulas e listadas em errors
+        DashboardChartsDto dashboardData = dashboardChartsService.getDashboardCharts(
+                authentication.getName(), startDate, endDate, months);
         
         return ResponseEntity.ok(dashboardData);
     }
     
     /**
-     * DTO para retornar todos os dados de gráficos em uma única chamada
+     * Responde 304 quando o cliente já tem a versão atual dos dados; caso contrário
+     * calcula o gráfico e o devolve com o ETag
      */
-    private static class DashboardChartsData {
-        private final CategoryExpenseChartDto expensesByCategory;
-        private final MonthlyTrendChartDto incomeExpenseTrend;
-        private final GoalsProgressChartDto goalsProgress;
-        
-        public DashboardChartsData(
-                CategoryExpenseChartDto expensesByCategory,
-                MonthlyTrendChartDto incomeExpenseTrend,
-                GoalsProgressChartDto goalsProgress) {
-            this.expensesByCategory = expensesByCategory;
-            this.incomeExpenseTrend = incomeExpenseTrend;
-            this.goalsProgress = goalsProgress;
+    private <T> ResponseEntity<T> conditionalResponse(String etag, String ifNoneMatch, Supplier<T> chartData) {
+        if (ETagMatcher.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
         
-        public CategoryExpenseChartDto getExpensesByCategory() {
-            return expensesByCategory;
-        }
-        
-        public MonthlyTrendChartDto getIncomeExpenseTrend() {
-            return incomeExpenseTrend;
-        }
-        
-        public GoalsProgressChartDto getGoalsProgress() {
-            return goalsProgress;
-        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(chartData.get());
     }
 }
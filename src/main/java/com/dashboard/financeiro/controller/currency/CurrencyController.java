@@ -1,12 +1,16 @@
 package com.dashboard.financeiro.controller.currency;
 
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionRequest;
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionRequest;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionResponse;
 import com.dashboard.financeiro.dto.currency.FinancialSummaryConversionRequest;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
 import com.dashboard.financeiro.service.currency.CurrencyService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +36,21 @@ public class CurrencyController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Endpoint para converter vários valores em uma única requisição,
+     * todos com o mesmo snapshot de taxas (informado na resposta)
+     */
+    @PostMapping("/convert/batch")
+    public ResponseEntity<CurrencyBatchConversionResponse> convertCurrencyBatch(
+            @Valid @RequestBody CurrencyBatchConversionRequest request) {
+        
+        CurrencyBatchConversionResponse response = currencyService.convertBatch(request.getConversions());
+        
+        // 207 indica que parte das conversões falhou; o detalhe está em cada resultado
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(response, status);
+    }
+
     /**
      * Endpoint para obter o resumo financeiro convertido para outra moeda
      */
@@ -46,7 +65,8 @@ public class CurrencyController {
                 username,
                 request.getStartDate(),
                 request.getEndDate(),
-                request.getTargetCurrency()
+                request.getTargetCurrency(),
+                request.isHistoricalRates()
         );
         
         return ResponseEntity.ok(convertedSummary);
@@ -62,7 +82,8 @@ public class CurrencyController {
                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(value = "endDate", required = false) 
                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam("targetCurrency") String targetCurrency) {
+            @RequestParam("targetCurrency") String targetCurrency,
+            @RequestParam(value = "historicalRates", defaultValue = "false") boolean historicalRates) {
         
         String username = authentication.getName();
         
@@ -79,7 +100,8 @@ public class CurrencyController {
                 username,
                 startDate,
                 endDate,
-                targetCurrency
+                targetCurrency,
+                historicalRates
         );
         
         return ResponseEntity.ok(convertedSummary);
@@ -1,20 +1,27 @@
 package com.dashboard.financeiro.controller.report;
 
 import com.dashboard.financeiro.dto.report.ReportDateRangeRequest;
-import com.dashboard.financeiro.service.report.FinancialReportService;
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import com.dashboard.financeiro.service.report.ReportExportService;
+import com.dashboard.financeiro.service.report.ReportExportService.ExportFormat;
+import com.dashboard.financeiro.service.report.ReportFileService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -22,163 +29,139 @@ import java.time.format.DateTimeFormatter;
 public class FinancialReportController {
 
     @Autowired
-    private FinancialReportService financialReportService;
+    private ReportFileService reportFileService;
+
+    @Autowired
+    private ReportExportService reportExportService;
 
     @GetMapping("/financial")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<byte[]> generateFinancialReport(
+    public ResponseEntity<StreamingResponseBody> generateFinancialReport(
             Authentication authentication,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader HttpHeaders requestHeaders) {
         
-        try {
-            // Configurar datas padrão se não fornecidas
-            if (startDate == null) {
-                startDate = LocalDate.now().withDayOfMonth(1);
-            }
-            
-            if (endDate == null) {
-                endDate = startDate.plusMonths(1).minusDays(1);
-            }
-            
-            // Gerar o relatório
-            ByteArrayOutputStream baos = financialReportService.generateFinancialReport(
-                    authentication.getName(), startDate, endDate);
-            
-            // Criar nome do arquivo baseado no período
-            String fileName = "relatorio_financeiro_" + 
-                    startDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "_" +
-                    endDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            
-            // Configurar o cabeçalho para download do PDF
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", fileName);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-            
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        // Datas padrão: mês atual
+        return pdfResponse(authentication.getName(), ReportPeriod.custom(startDate, endDate), requestHeaders);
     }
     
     @PostMapping("/financial")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<byte[]> generateFinancialReportWithBody(
+    public ResponseEntity<StreamingResponseBody> generateFinancialReportWithBody(
             Authentication authentication,
-            @RequestBody ReportDateRangeRequest request) {
+            @RequestBody ReportDateRangeRequest request,
+            @RequestHeader HttpHeaders requestHeaders) {
         
-        try {
-            LocalDate startDate = request.getStartDate();
-            LocalDate endDate = request.getEndDate();
-            
-            // Definir datas com base no tipo de relatório
-            if ("monthly".equals(request.getReportType())) {
-                startDate = LocalDate.now().withDayOfMonth(1);
-                endDate = startDate.plusMonths(1).minusDays(1);
-            } else if ("annual".equals(request.getReportType())) {
-                startDate = LocalDate.now().withDayOfYear(1);
-                endDate = startDate.plusYears(1).minusDays(1);
-            } else {
-                // Para tipo "custom", usar as datas fornecidas
-                if (startDate == null) {
-                    startDate = LocalDate.now().withDayOfMonth(1);
-                }
-                
-                if (endDate == null) {
-                    endDate = startDate.plusMonths(1).minusDays(1);
-                }
-            }
-            
-            // Gerar o relatório
-            ByteArrayOutputStream baos = financialReportService.generateFinancialReport(
-                    authentication.getName(), startDate, endDate);
-            
-            // Criar nome do arquivo baseado no tipo e período
-            String fileName;
-            if ("monthly".equals(request.getReportType())) {
-                fileName = "relatorio_financeiro_mensal_" + 
-                        startDate.format(DateTimeFormatter.ofPattern("yyyyMM")) + ".pdf";
-            } else if ("annual".equals(request.getReportType())) {
-                fileName = "relatorio_financeiro_anual_" + 
-                        startDate.format(DateTimeFormatter.ofPattern("yyyy")) + ".pdf";
-            } else {
-                fileName = "relatorio_financeiro_" + 
-                        startDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "_" +
-                        endDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf";
-            }
-            
-            // Configurar o cabeçalho para download do PDF
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", fileName);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-            
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        // Definir datas e nome do arquivo com base no tipo de relatório
+        return pdfResponse(authentication.getName(), ReportPeriod.from(request), requestHeaders);
     }
     
     @GetMapping("/financial/monthly")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<byte[]> generateMonthlyFinancialReport(Authentication authentication) {
-        LocalDate startDate = LocalDate.now().withDayOfMonth(1);
-        LocalDate endDate = startDate.plusMonths(1).minusDays(1);
-        
-        try {
-            // Gerar o relatório
-            ByteArrayOutputStream baos = financialReportService.generateFinancialReport(
-                    authentication.getName(), startDate, endDate);
-            
-            // Criar nome do arquivo baseado no mês
-            String fileName = "relatorio_financeiro_mensal_" + 
-                    startDate.format(DateTimeFormatter.ofPattern("yyyyMM")) + ".pdf";
-            
-            // Configurar o cabeçalho para download do PDF
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", fileName);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-            
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public ResponseEntity<StreamingResponseBody> generateMonthlyFinancialReport(
+            Authentication authentication,
+            @RequestHeader HttpHeaders requestHeaders) {
+        return pdfResponse(authentication.getName(), ReportPeriod.monthly(), requestHeaders);
     }
     
     @GetMapping("/financial/annual")
     @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
-    public ResponseEntity<byte[]> generateAnnualFinancialReport(Authentication authentication) {
-        LocalDate startDate = LocalDate.now().withDayOfYear(1);
-        LocalDate endDate = startDate.plusYears(1).minusDays(1);
+    public ResponseEntity<StreamingResponseBody> generateAnnualFinancialReport(
+            Authentication authentication,
+            @RequestHeader HttpHeaders requestHeaders) {
+        return pdfResponse(authentication.getName(), ReportPeriod.annual(), requestHeaders);
+    }
+    
+    /**
+     * Transações do período em CSV ou XLSX (format=csv|xlsx), escritas à medida que são lidas do banco
+     */
+    @GetMapping("/transactions")
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            Authentication authentication,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        String username = authentication.getName();
+        ReportPeriod period = ReportPeriod.custom(startDate, endDate);
+        
+        return exportResponse(format, "transacoes", period, (exportFormat, outputStream) ->
+                reportExportService.writeTransactions(username, period.getStartDate(), period.getEndDate(),
+                        exportFormat, outputStream));
+    }
+    
+    /**
+     * Resumo do período (totais e valores por categoria) em CSV ou XLSX
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportSummary(
+            Authentication authentication,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        String username = authentication.getName();
+        ReportPeriod period = ReportPeriod.custom(startDate, endDate);
+        
+        return exportResponse(format, "resumo", period, (exportFormat, outputStream) ->
+                reportExportService.writeSummary(username, period.getStartDate(), period.getEndDate(),
+                        exportFormat, outputStream));
+    }
+    
+    /**
+     * PDF servido a partir do cache em disco: gerado uma única vez por versão dos dados do usuário.
+     * Já gerado, é enviado com suporte a Range/If-Range, para que downloads interrompidos possam
+     * ser retomados. Ainda não gerado, é escrito na resposta à medida que é produzido (fora da
+     * thread da requisição) enquanto é gravado no cache. Anos civis completos são montados a partir
+     * de seções mensais
+     */
+    private ResponseEntity<StreamingResponseBody> pdfResponse(String username, ReportPeriod period,
+                                                              HttpHeaders requestHeaders) {
+        String key = reportFileService.key(username, period);
         
         try {
-            // Gerar o relatório
-            ByteArrayOutputStream baos = financialReportService.generateFinancialReport(
-                    authentication.getName(), startDate, endDate);
-            
-            // Criar nome do arquivo baseado no ano
-            String fileName = "relatorio_financeiro_anual_" + 
-                    startDate.format(DateTimeFormatter.ofPattern("yyyy")) + ".pdf";
-            
-            // Configurar o cabeçalho para download do PDF
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", fileName);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-            
-            return new ResponseEntity<>(baos.toByteArray(), headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            Optional<CachedReport> cached = reportFileService.find(key);
+            if (cached.isPresent()) {
+                return PdfDownloads.serve(cached.get().getFile(), key,
+                        period.getFileName(), requestHeaders);
+            }
+        } catch (NoSuchFileException e) {
+            // Removido pela política LRU entre a consulta e a abertura: gera de novo abaixo
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        
+        return PdfDownloads.stream(key, period.getFileName(), requestHeaders,
+                outputStream -> reportFileService.write(key, username, period, outputStream));
+    }
+    
+    private ResponseEntity<StreamingResponseBody> exportResponse(String format, String prefix, ReportPeriod period,
+                                                                 ExportWriter writer) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        
+        String fileName = prefix + "_" +
+                period.getStartDate().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "_" +
+                period.getEndDate().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "." + exportFormat.getExtension();
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDispositionFormData("attachment", fileName);
+        
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(outputStream -> writer.write(exportFormat, outputStream));
+    }
+    
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(ExportFormat format, OutputStream outputStream) throws IOException;
     }
 }
@@ -0,0 +1,140 @@
+package com.dashboard.financeiro.controller.report;
+
+import com.dashboard.financeiro.util.ByteRange;
+import com.dashboard.financeiro.util.ETagMatcher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Envio de PDFs já gravados em disco com suporte a Range/If-Range, para que downloads
+ * grandes possam ser retomados. Os bytes seguem do arquivo para a resposta com
+ * {@link FileChannel#transferTo}; como o destino é o stream do servlet, o JDK copia por um
+ * buffer pequeno em heap (não é cópia zero), mas a memória usada não depende do tamanho do arquivo
+ */
+final class PdfDownloads {
+
+    private PdfDownloads() {
+    }
+
+    /**
+     * O arquivo é aberto antes de responder: se for removido do cache depois disso,
+     * o canal aberto continua lendo o conteúdo original.
+     * O ETag forte (também usado no If-Range) combina a chave com a data de modificação e o tamanho
+     * do arquivo aberto: um PDF gerado de novo com a mesma chave tem outros bytes (datas e /ID do
+     * iText) e recebe outro ETag, então uma retomada nunca junta partes de arquivos diferentes
+     *
+     * @param key chave do relatório no cache
+     */
+    static ResponseEntity<StreamingResponseBody> serve(Path file, String key, String fileName,
+                                                       HttpHeaders requestHeaders) throws IOException {
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() != lastModified) {
+                // Arquivo substituído entre a leitura da data e a abertura: a data não é a do canal aberto
+                channel.close();
+                return serve(file, key, fileName, requestHeaders);
+            }
+
+            long length = channel.size();
+            String etag = "\"" + key + "-" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(etag);
+            headers.setLastModified(lastModified);
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setCacheControl("private, must-revalidate");
+
+            // O ETag fraco da resposta gerada em streaming também vale para o 304: é o mesmo relatório
+            String ifNoneMatch = requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH);
+            if (ETagMatcher.matches(ifNoneMatch, etag) || ETagMatcher.matches(ifNoneMatch, "\"" + key + "\"")) {
+                channel.close();
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+
+            Optional<ByteRange> range = Optional.empty();
+            if (ByteRange.ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), etag, lastModified)) {
+                try {
+                    range = ByteRange.parse(requestHeaders.getFirst(HttpHeaders.RANGE), length);
+                } catch (IllegalArgumentException e) {
+                    channel.close();
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+                }
+            }
+
+            long position = range.map(ByteRange::getStart).orElse(0L);
+            long count = range.map(ByteRange::length).orElse(length);
+
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", fileName);
+            headers.setContentLength(count);
+            range.ifPresent(value -> headers.set(HttpHeaders.CONTENT_RANGE, value.contentRange(length)));
+
+            StreamingResponseBody body = outputStream -> transfer(channel, position, count, outputStream);
+
+            return ResponseEntity.status(range.isPresent() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                    .headers(headers)
+                    .body(body);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * PDF ainda não gravado, escrito na resposta à medida que é gerado: sem tamanho conhecido
+     * e sem Range. Os bytes desta geração ainda não têm ETag forte, então a resposta leva apenas
+     * o ETag fraco da chave, que serve para o 304 mas nunca para o If-Range
+     *
+     * @param key chave do relatório no cache
+     */
+    static ResponseEntity<StreamingResponseBody> stream(String key, String fileName, HttpHeaders requestHeaders,
+                                                        StreamingResponseBody body) {
+        String etag = "\"" + key + "\"";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("W/" + etag);
+        headers.setCacheControl("private, must-revalidate");
+
+        if (ETagMatcher.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", fileName);
+
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count,
+                                 OutputStream outputStream) throws IOException {
+        try (channel) {
+            // O stream da resposta não é fechado aqui; quem fecha é o container.
+            // O canal sobre o stream copia em blocos por um buffer do JDK
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    throw new EOFException("Arquivo do relatório menor que o esperado");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dashboard.financeiro.controller.report;
+
+import com.dashboard.financeiro.dto.report.ReportDateRangeRequest;
+import com.dashboard.financeiro.dto.report.ReportJobResponse;
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.report.ReportJob;
+import com.dashboard.financeiro.service.report.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    /**
+     * Enfileira o relatório e responde imediatamente com o job; o cliente consulta o status
+     * e baixa o PDF quando estiver pronto
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<ReportJobResponse> submitReportJob(
+            Authentication authentication,
+            @RequestBody ReportDateRangeRequest request) {
+        try {
+            ReportJob job = reportJobService.submit(authentication.getName(), ReportPeriod.from(request));
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/reports/jobs/" + job.getId()))
+                    .body(ReportJobResponse.fromJob(job));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<List<ReportJobResponse>> getReportJobs(Authentication authentication) {
+        List<ReportJobResponse> jobs = reportJobService.findAllByUser(authentication.getName()).stream()
+                .map(ReportJobResponse::fromJob)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(jobs);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<ReportJobResponse> getReportJob(Authentication authentication, @PathVariable String id) {
+        return reportJobService.find(id, authentication.getName())
+                .map(job -> ResponseEntity.ok(ReportJobResponse.fromJob(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Download do PDF gerado, com suporte a Range; 409 enquanto o job não terminou com sucesso
+     */
+    @GetMapping("/{id}/download")
+    @PreAuthorize("hasRole('USER') or hasRole('ANALYST') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadReport(
+            Authentication authentication,
+            @PathVariable String id,
+            @RequestHeader HttpHeaders requestHeaders) {
+        Optional<ReportJob> found = reportJobService.find(id, authentication.getName());
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ReportJob job = found.get();
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        try {
+            return PdfDownloads.serve(job.getFile(), job.getReportKey(), job.getPeriod().getFileName(), requestHeaders);
+        } catch (NoSuchFileException e) {
+            // Removido do cache de relatórios antes do download: o job precisa ser enviado de novo
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dashboard.financeiro.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+
+    private List<CacheStats> caches;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheStats {
+        private String name;
+        private long hitCount;
+        private long missCount;
+        private long evictionCount;
+        private double hitRate;
+        private long estimatedSize;
+        private Long sizeBytes;             // Apenas para caches em disco
+    }
+}
@@ -0,0 +1,45 @@
+package com.dashboard.financeiro.dto.admin;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateBackfillRequest {
+
+    public static final int MAX_DAYS = 3660;
+
+    @Valid
+    @NotEmpty(message = "Informe ao menos um dia de taxas")
+    @Size(max = MAX_DAYS, message = "O lote deve conter no máximo " + MAX_DAYS + " dias")
+    private List<DailyRates> days;
+
+    /**
+     * Taxas de um dia no formato da Open Exchange Rates, relativas à base (USD se omitida).
+     * Com outra base, as taxas precisam incluir o USD para serem convertidas
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyRates {
+
+        @NotNull(message = "A data é obrigatória")
+        private LocalDate date;
+
+        private String base;
+
+        @NotEmpty(message = "As taxas são obrigatórias")
+        private Map<String, BigDecimal> rates;
+    }
+}
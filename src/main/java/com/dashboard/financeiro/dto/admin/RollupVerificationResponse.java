@@ -0,0 +1,35 @@
+package com.dashboard.financeiro.dto.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupVerificationResponse {
+
+    private boolean consistent;
+    private int driftCount;
+    private List<RollupDrift> drifts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupDrift {
+        private Long userId;
+        private Long categoryId;
+        private String type;
+        private Integer yearMonth; // Formato yyyyMM
+        private BigDecimal rollupAmount;
+        private BigDecimal actualAmount;
+        private Long rollupCount;
+        private Long actualCount;
+    }
+}
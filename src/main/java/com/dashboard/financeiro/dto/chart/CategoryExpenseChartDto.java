@@ -25,6 +25,7 @@ public class CategoryExpenseChartDto {
         private Long categoryId;
         private String categoryName;
         private BigDecimal amount;
+        private Long transactionCount;
         private BigDecimal percentage;
         private String color; // Código de cor hexadecimal para o gráfico
     }
@@ -0,0 +1,29 @@
+package com.dashboard.financeiro.dto.chart;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Todos os dados de gráficos do painel em uma única resposta.
+ * Seções que falharam ou excederam o tempo limite vêm nulas, com o motivo em errors
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardChartsDto {
+
+    public static final String EXPENSES_SECTION = "expensesByCategory";
+    public static final String TREND_SECTION = "incomeExpenseTrend";
+    public static final String GOALS_SECTION = "goalsProgress";
+
+    private CategoryExpenseChartDto expensesByCategory;
+    private MonthlyTrendChartDto incomeExpenseTrend;
+    private GoalsProgressChartDto goalsProgress;
+    private boolean partial;
+    private Map<String, String> errors; // Seção -> motivo da falha
+}
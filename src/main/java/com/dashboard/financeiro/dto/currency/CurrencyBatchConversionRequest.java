@@ -0,0 +1,23 @@
+package com.dashboard.financeiro.dto.currency;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyBatchConversionRequest {
+
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    // Cada conversão é validada individualmente no serviço para que uma linha
+    // inválida não rejeite o lote inteiro
+    @NotEmpty(message = "O lote deve conter ao menos uma conversão")
+    @Size(max = MAX_BATCH_SIZE, message = "O lote deve conter no máximo " + MAX_BATCH_SIZE + " conversões")
+    private List<CurrencyConversionRequest> conversions;
+}
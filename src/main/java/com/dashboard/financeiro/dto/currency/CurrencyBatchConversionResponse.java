@@ -0,0 +1,40 @@
+package com.dashboard.financeiro.dto.currency;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyBatchConversionResponse {
+
+    // Snapshot de taxas usado em todas as conversões do lote
+    private String ratesBase;
+    private LocalDateTime ratesUpdatedAt;
+    private boolean ratesStale;
+
+    private int total;
+    private int converted;
+    private int failed;
+    private List<ConversionResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ConversionResult {
+        private int index; // Posição da conversão no lote enviado
+        private BigDecimal convertedAmount;
+        private BigDecimal exchangeRate;
+        private String error;
+    }
+}
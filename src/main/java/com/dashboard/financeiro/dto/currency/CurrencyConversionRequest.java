@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 @NoArgsConstructor
@@ -14,4 +15,9 @@ public class CurrencyConversionRequest {
     private BigDecimal amount;
     private String fromCurrency; // Código da moeda de origem (ex: BRL)
     private String toCurrency;   // Código da moeda de destino (ex: USD)
+    private LocalDate date;      // Opcional: converte com a taxa histórica da data
+    
+    public CurrencyConversionRequest(BigDecimal amount, String fromCurrency, String toCurrency) {
+        this(amount, fromCurrency, toCurrency, null);
+    }
 }
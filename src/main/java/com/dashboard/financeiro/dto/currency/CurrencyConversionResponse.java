@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
@@ -20,4 +21,7 @@ public class CurrencyConversionResponse {
     private String targetCurrency;
     private BigDecimal exchangeRate;
     private LocalDateTime conversionDate;
+    private LocalDateTime ratesUpdatedAt;
+    private boolean ratesStale; // Taxas vencidas servidas porque a atualização não chegou a tempo
+    private LocalDate rateDate; // Data da taxa histórica usada, quando a conversão pediu uma data
 }
@@ -19,4 +19,6 @@ public class FinancialSummaryConversionRequest {
     private LocalDate endDate;
     
     private String targetCurrency; // Código da moeda de destino (ex: USD)
+    
+    private boolean historicalRates; // Converte cada transação com a taxa do seu dia
 }
@@ -0,0 +1,48 @@
+package com.dashboard.financeiro.dto.report;
+
+import com.dashboard.financeiro.service.report.ReportJob;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Data
+public class ReportJobResponse {
+    private String id;
+    private String status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String fileName;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime expiresAt;
+    private Long sizeBytes;
+    private String error;
+    private String downloadUrl;         // Preenchido quando o PDF está pronto
+
+    public static ReportJobResponse fromJob(ReportJob job) {
+        ReportJobResponse response = new ReportJobResponse();
+        response.setId(job.getId());
+        response.setStatus(job.getStatus().name());
+        response.setStartDate(job.getPeriod().getStartDate());
+        response.setEndDate(job.getPeriod().getEndDate());
+        response.setFileName(job.getPeriod().getFileName());
+        response.setCreatedAt(toLocal(job.getCreatedAt()));
+        response.setFinishedAt(toLocal(job.getFinishedAt()));
+        response.setExpiresAt(toLocal(job.getExpiresAt()));
+        response.setError(job.getError());
+
+        if (job.getStatus() == ReportJob.Status.COMPLETED) {
+            response.setSizeBytes(job.getSizeBytes());
+            response.setDownloadUrl("/api/reports/jobs/" + job.getId() + "/download");
+        }
+
+        return response;
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
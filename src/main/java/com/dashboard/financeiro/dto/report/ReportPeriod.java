@@ -0,0 +1,74 @@
+package com.dashboard.financeiro.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Período de um relatório já resolvido (datas padrão aplicadas) e o nome do arquivo gerado
+ */
+@Data
+@AllArgsConstructor
+public class ReportPeriod {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String fileName;
+
+    public static ReportPeriod monthly() {
+        LocalDate startDate = LocalDate.now().withDayOfMonth(1);
+        return new ReportPeriod(startDate, startDate.plusMonths(1).minusDays(1),
+                "relatorio_financeiro_mensal_" + startDate.format(DateTimeFormatter.ofPattern("yyyyMM")) + ".pdf");
+    }
+
+    public static ReportPeriod annual() {
+        LocalDate startDate = LocalDate.now().withDayOfYear(1);
+        return new ReportPeriod(startDate, startDate.plusYears(1).minusDays(1),
+                "relatorio_financeiro_anual_" + startDate.format(DateTimeFormatter.ofPattern("yyyy")) + ".pdf");
+    }
+
+    /**
+     * Período informado; sem datas, usa o mês atual
+     */
+    public static ReportPeriod custom(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null) {
+            startDate = LocalDate.now().withDayOfMonth(1);
+        }
+        
+        if (endDate == null) {
+            endDate = startDate.plusMonths(1).minusDays(1);
+        }
+        
+        return new ReportPeriod(startDate, endDate,
+                "relatorio_financeiro_" +
+                        startDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + "_" +
+                        endDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".pdf");
+    }
+
+    /**
+     * Resolve o período pelo tipo do relatório ("monthly", "annual" ou "custom")
+     */
+    public static ReportPeriod from(ReportDateRangeRequest request) {
+        if ("monthly".equals(request.getReportType())) {
+            return monthly();
+        }
+        
+        if ("annual".equals(request.getReportType())) {
+            return annual();
+        }
+        
+        return custom(request.getStartDate(), request.getEndDate());
+    }
+
+    /**
+     * Indica se o período é um ano civil completo (1º de janeiro a 31 de dezembro)
+     */
+    public boolean isCalendarYear() {
+        return startDate.getDayOfYear() == 1
+                && endDate.getYear() == startDate.getYear()
+                && endDate.getMonthValue() == 12
+                && endDate.getDayOfMonth() == 31;
+    }
+}
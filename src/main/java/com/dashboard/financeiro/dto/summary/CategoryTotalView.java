@@ -0,0 +1,23 @@
+package com.dashboard.financeiro.dto.summary;
+
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção agrupada por categoria e tipo (soma e quantidade de transações).
+ * Preenchida por expressão de construtor nas consultas agregadas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTotalView {
+    private Long categoryId;
+    private String categoryName;
+    private TransactionType type;
+    private BigDecimal amount;
+    private Long transactionCount;
+}
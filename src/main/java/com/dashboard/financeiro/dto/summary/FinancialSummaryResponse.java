@@ -1,5 +1,6 @@
 package com.dashboard.financeiro.dto.summary;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,7 +21,10 @@ public class FinancialSummaryResponse {
     private List<FinancialGoalDto> achievedGoals;
     private List<CategorySummaryDto> expensesByCategory;
     private List<CategorySummaryDto> incomesByCategory;
+    @Builder.Default
     private String currency = "BRL"; // Moeda padrão
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean exchangeRatesStale; // Preenchido apenas em resumos convertidos
     
     @Data
     @Builder
@@ -0,0 +1,23 @@
+package com.dashboard.financeiro.dto.transaction;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchRequest {
+
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    // As linhas são validadas individualmente no serviço para que uma linha
+    // inválida não rejeite o lote inteiro
+    @NotEmpty(message = "O lote deve conter ao menos uma transação")
+    @Size(max = MAX_BATCH_SIZE, message = "O lote deve conter no máximo " + MAX_BATCH_SIZE + " transações")
+    private List<TransactionRequest> transactions;
+}
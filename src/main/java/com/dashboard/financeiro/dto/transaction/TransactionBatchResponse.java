@@ -0,0 +1,36 @@
+package com.dashboard.financeiro.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResponse {
+
+    private int total;
+    private int created;
+    private int failed;
+    private List<RowResult> results;
+
+    public enum RowStatus {
+        CREATED,
+        ERROR
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private int index; // Posição da linha no lote enviado
+        private RowStatus status;
+        private TransactionResponse transaction;
+        private String error;
+    }
+}
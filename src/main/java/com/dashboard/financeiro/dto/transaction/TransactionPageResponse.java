@@ -0,0 +1,20 @@
+package com.dashboard.financeiro.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+
+    private List<TransactionResponse> transactions;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor; // Token opaco para buscar a próxima página (null na última)
+}
@@ -1,8 +1,11 @@
 package com.dashboard.financeiro.dto.transaction;
 
+import com.dashboard.financeiro.model.Category;
+import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.model.Transaction.TransactionType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -17,6 +20,10 @@ public class TransactionRequest {
     @Positive(message = "O valor deve ser positivo")
     private BigDecimal amount;
 
+    // Moeda do valor informado; vazio significa a moeda base (BRL)
+    @Pattern(regexp = "[A-Z]{3}", message = "A moeda deve ter 3 letras maiúsculas (ex: USD)")
+    private String currency;
+
     @NotNull(message = "O tipo de transação é obrigatório")
     private TransactionType type;
 
@@ -28,4 +35,20 @@ public class TransactionRequest {
 
     @NotNull(message = "A categoria é obrigatória")
     private Long categoryId;
+
+    public Transaction toEntity() {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(this.amount);
+        transaction.setOriginalAmount(this.amount);
+        transaction.setOriginalCurrency(this.currency);
+        transaction.setType(this.type);
+        transaction.setDate(this.date);
+        transaction.setDescription(this.description);
+        
+        Category category = new Category();
+        category.setId(this.categoryId);
+        transaction.setCategory(category);
+        
+        return transaction;
+    }
 }
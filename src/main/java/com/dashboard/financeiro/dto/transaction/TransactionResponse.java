@@ -10,7 +10,9 @@ import java.time.LocalDate;
 @Data
 public class TransactionResponse {
     private Long id;
-    private BigDecimal amount;
+    private BigDecimal amount;          // Valor na moeda base (BRL)
+    private String originalCurrency;    // Moeda em que a transação foi informada
+    private BigDecimal originalAmount;  // Valor na moeda original
     private String type;
     private LocalDate date;
     private String description;
@@ -27,6 +29,7 @@ public class TransactionResponse {
         TransactionResponse response = new TransactionResponse();
         response.setId(transaction.getId());
         response.setAmount(transaction.getAmount());
+        response.setOriginal(transaction.getOriginalCurrency(), transaction.getOriginalAmount());
         response.setType(transaction.getType().getDescription());
         response.setDate(transaction.getDate());
         response.setDescription(transaction.getDescription());
@@ -41,4 +44,31 @@ public class TransactionResponse {
         
         return response;
     }
+    
+    /**
+     * Transações anteriores à moeda original (ainda não migradas) foram informadas em BRL
+     */
+    private void setOriginal(String currency, BigDecimal originalAmount) {
+        this.originalCurrency = currency != null ? currency : Transaction.BASE_CURRENCY;
+        this.originalAmount = originalAmount != null ? originalAmount : this.amount;
+    }
+    
+    public static TransactionResponse fromView(TransactionView view) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(view.getId());
+        response.setAmount(view.getAmount());
+        response.setOriginal(view.getOriginalCurrency(), view.getOriginalAmount());
+        response.setType(view.getType().getDescription());
+        response.setDate(view.getDate());
+        response.setDescription(view.getDescription());
+        
+        CategoryDto categoryDto = new CategoryDto();
+        categoryDto.setId(view.getCategoryId());
+        categoryDto.setName(view.getCategoryName());
+        categoryDto.setType(view.getCategoryType() != null ? view.getCategoryType().getDescription() : null);
+        
+        response.setCategory(categoryDto);
+        
+        return response;
+    }
 }
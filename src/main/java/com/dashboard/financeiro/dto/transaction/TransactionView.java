@@ -0,0 +1,31 @@
+package com.dashboard.financeiro.dto.transaction;
+
+import com.dashboard.financeiro.model.Category.CategoryType;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de leitura de uma transação com os dados da categoria.
+ * Preenchida por expressão de construtor nas consultas do TransactionRepository,
+ * sem carregar as entidades Transaction, Category e User
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionView {
+    private Long id;
+    private BigDecimal amount;
+    private TransactionType type;
+    private LocalDate date;
+    private String description;
+    private Long categoryId;
+    private String categoryName;
+    private CategoryType categoryType;
+    private String originalCurrency;
+    private BigDecimal originalAmount;
+}
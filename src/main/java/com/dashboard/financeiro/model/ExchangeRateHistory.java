@@ -0,0 +1,37 @@
+package com.dashboard.financeiro.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Taxa de câmbio diária de uma moeda em relação à base da fonte (USD na Open Exchange Rates).
+ * Conversões entre duas moedas usam a razão das taxas do mesmo dia
+ */
+@Entity
+@Table(name = "exchange_rate_history",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_exchange_rate_history_key",
+                columnNames = {"currency", "rate_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(nullable = false, precision = 20, scale = 10)
+    private BigDecimal rate;
+}
@@ -0,0 +1,49 @@
+package com.dashboard.financeiro.model;
+
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais mensais pré-agregados das transações por usuário, categoria e tipo.
+ * Mantidos de forma incremental na mesma transação das escritas em transactions
+ */
+@Entity
+@Table(name = "monthly_rollups",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_monthly_rollups_key",
+                columnNames = {"user_id", "category_id", "type", "year_month"}),
+        indexes = @Index(name = "idx_monthly_rollups_user_month", columnList = "user_id, year_month"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    // Ano e mês no formato yyyyMM (ex: 202403)
+    @Column(name = "year_month", nullable = false)
+    private Integer yearMonth;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+}
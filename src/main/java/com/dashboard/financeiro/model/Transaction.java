@@ -10,19 +10,39 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Suporta a paginação por cursor (keyset) em (date, id) de cada usuário
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Transaction {
 
+    // Moeda em que amount é armazenado
+    public static final String BASE_CURRENCY = "BRL";
+
+    // Sequência com alocação em bloco (pooled): o id é conhecido antes do INSERT,
+    // o que permite ao Hibernate agrupar os inserts em lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
+    // Valor na moeda base (BRL), fixado na escrita: todas as somas e rollups leem apenas esta coluna
     @Column(nullable = false)
     private BigDecimal amount;
 
+    // Moeda e valor informados pelo usuário; a taxa usada para chegar em amount fica registrada
+    @Column(name = "original_currency", length = 3)
+    private String originalCurrency;
+
+    @Column(name = "original_amount", precision = 12, scale = 2)
+    private BigDecimal originalAmount;
+
+    @Column(name = "exchange_rate", precision = 20, scale = 10)
+    private BigDecimal exchangeRate;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TransactionType type;
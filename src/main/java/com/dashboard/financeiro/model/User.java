@@ -35,6 +35,10 @@ public class User {
 
     private boolean active = true;
 
+    // Versão dos dados financeiros do usuário, incrementada a cada escrita (compõe as chaves de cache)
+    @Column(name = "data_version", nullable = false, columnDefinition = "bigint default 0")
+    private long dataVersion;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
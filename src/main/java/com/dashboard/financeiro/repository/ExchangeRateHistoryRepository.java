@@ -0,0 +1,58 @@
+package com.dashboard.financeiro.repository;
+
+import com.dashboard.financeiro.model.ExchangeRateHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateHistoryRepository extends JpaRepository<ExchangeRateHistory, Long> {
+
+    // Maior intervalo sem taxa coberto pela taxa do último dia disponível
+    int LOOKBACK_DAYS = 7;
+
+    /**
+     * Grava todas as taxas de um dia em um único comando, substituindo as existentes.
+     * As taxas chegam como um objeto JSON {"BRL": 5.1, "EUR": 0.92, ...}
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "INSERT INTO exchange_rate_history (currency, rate_date, rate) " +
+            "SELECT r.key, :rateDate, CAST(r.value AS NUMERIC) " +
+            "FROM jsonb_each_text(CAST(:ratesJson AS jsonb)) r " +
+            "ON CONFLICT (currency, rate_date) DO UPDATE SET rate = EXCLUDED.rate")
+    int upsertDay(@Param("rateDate") LocalDate rateDate, @Param("ratesJson") String ratesJson);
+
+    /**
+     * Taxas do último dia com histórico até a data, olhando até LOOKBACK_DAYS para trás
+     * (fins de semana e feriados usam o último dia disponível). Todas as taxas vêm do mesmo
+     * dia, para que as taxas cruzadas não misturem cotações de dias diferentes.
+     * Colunas: currency, rate
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT h.currency, h.rate FROM exchange_rate_history h " +
+            "WHERE h.rate_date = (SELECT MAX(d.rate_date) FROM exchange_rate_history d " +
+            "WHERE d.rate_date BETWEEN CAST(:date AS DATE) - " + LOOKBACK_DAYS + " AND :date)")
+    List<Object[]> findRatesOn(@Param("date") LocalDate date);
+
+    /**
+     * Taxas dos dias de histórico usados pelas datas informadas, em uma única consulta:
+     * para cada data, o último dia com histórico até ela (mesma regra de findRatesOn).
+     * Cada dia de taxas vem uma única vez, mesmo que várias datas caiam nele.
+     * Colunas: rate_date, currency, rate
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT h.rate_date, h.currency, h.rate FROM exchange_rate_history h " +
+            "WHERE h.rate_date IN (SELECT (SELECT MAX(d.rate_date) FROM exchange_rate_history d " +
+            "WHERE d.rate_date BETWEEN q.day - " + LOOKBACK_DAYS + " AND q.day) " +
+            "FROM unnest(CAST(ARRAY[:dates] AS DATE[])) AS q(day))")
+    List<Object[]> findRatesOnDates(@Param("dates") Collection<LocalDate> dates);
+
+    boolean existsByRateDate(LocalDate rateDate);
+}
@@ -12,5 +12,11 @@ public interface FinancialGoalRepository extends JpaRepository<FinancialGoal, Lo
     
     List<FinancialGoal> findByUser(User user);
     
+    List<FinancialGoal> findByUserId(Long userId);
+    
     List<FinancialGoal> findByUserAndAchievedTrue(User user);
+    
+    List<FinancialGoal> findByUserIdAndAchievedTrue(Long userId);
+    
+    List<FinancialGoal> findByUserUsernameAndAchievedTrue(String username);
 }
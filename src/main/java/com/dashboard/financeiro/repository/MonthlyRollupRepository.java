@@ -0,0 +1,125 @@
+package com.dashboard.financeiro.repository;
+
+import com.dashboard.financeiro.dto.summary.CategoryTotalView;
+import com.dashboard.financeiro.model.MonthlyRollup;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long> {
+    
+    // Expressão do ano/mês (yyyyMM) de uma data nas consultas nativas
+    String YEAR_MONTH_SQL = "CAST(EXTRACT(YEAR FROM t.date) * 100 + EXTRACT(MONTH FROM t.date) AS INTEGER)";
+    
+    // Agregação das transações brutas na mesma granularidade do rollup (sem transações órfãs de categoria)
+    String RAW_ROLLUP_SQL = "SELECT t.user_id, t.category_id, t.type, " + YEAR_MONTH_SQL + " AS year_month, " +
+            "SUM(t.amount) AS total_amount, COUNT(*) AS transaction_count " +
+            "FROM transactions t WHERE t.category_id IS NOT NULL ";
+    
+    String RAW_ROLLUP_GROUP_BY_SQL = "GROUP BY t.user_id, t.category_id, t.type, " + YEAR_MONTH_SQL;
+    
+    /**
+     * Aplica um delta (positivo ou negativo) à linha do rollup, criando-a se necessário.
+     * O upsert é atômico, então escritas concorrentes do mesmo usuário não perdem atualizações
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "INSERT INTO monthly_rollups (user_id, category_id, type, year_month, total_amount, transaction_count) " +
+            "VALUES (:userId, :categoryId, :type, :yearMonth, :amount, :count) " +
+            "ON CONFLICT (user_id, category_id, type, year_month) DO UPDATE SET " +
+            "total_amount = monthly_rollups.total_amount + EXCLUDED.total_amount, " +
+            "transaction_count = monthly_rollups.transaction_count + EXCLUDED.transaction_count")
+    int applyDelta(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("type") String type,
+            @Param("yearMonth") Integer yearMonth,
+            @Param("amount") BigDecimal amount,
+            @Param("count") Long count);
+    
+    // Remove linhas que ficaram sem transações após exclusões
+    @Modifying
+    @Query("DELETE FROM MonthlyRollup r WHERE r.userId = :userId AND r.transactionCount <= 0")
+    int deleteEmptyByUserId(@Param("userId") Long userId);
+    
+    // Totais por categoria de um tipo: linhas do outro tipo não são lidas
+    @Query("SELECT new com.dashboard.financeiro.dto.summary.CategoryTotalView(" +
+           "c.id, c.name, r.type, SUM(r.totalAmount), SUM(r.transactionCount)) " +
+           "FROM MonthlyRollup r JOIN Category c ON c.id = r.categoryId " +
+           "WHERE r.userId = :userId AND r.type = :type AND r.yearMonth BETWEEN :fromMonth AND :toMonth " +
+           "GROUP BY c.id, c.name, r.type")
+    List<CategoryTotalView> sumByCategoryAndType(
+            @Param("userId") Long userId,
+            @Param("type") TransactionType type,
+            @Param("fromMonth") Integer fromMonth,
+            @Param("toMonth") Integer toMonth);
+    
+    /**
+     * Totais por mês e tipo em uma única instrução: meses completos do rollup
+     * somados às bordas parciais lidas das transações.
+     * Colunas: year_month (yyyyMM), type, total
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT x.year_month, x.type, SUM(x.amount) FROM (" +
+            "SELECT r.year_month, r.type, r.total_amount AS amount FROM monthly_rollups r " +
+            "WHERE r.user_id = :userId AND r.year_month BETWEEN :fromMonth AND :toMonth " +
+            "UNION ALL " +
+            "SELECT " + YEAR_MONTH_SQL + ", t.type, t.amount FROM transactions t " +
+            "WHERE t.user_id = :userId AND t.category_id IS NOT NULL " +
+            "AND (t.date BETWEEN :headStart AND :headEnd OR t.date BETWEEN :tailStart AND :tailEnd)" +
+            ") x GROUP BY x.year_month, x.type")
+    List<Object[]> sumByMonthAndType(
+            @Param("userId") Long userId,
+            @Param("fromMonth") Integer fromMonth,
+            @Param("toMonth") Integer toMonth,
+            @Param("headStart") LocalDate headStart,
+            @Param("headEnd") LocalDate headEnd,
+            @Param("tailStart") LocalDate tailStart,
+            @Param("tailEnd") LocalDate tailEnd);
+    
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM monthly_rollups WHERE user_id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "INSERT INTO monthly_rollups (user_id, category_id, type, year_month, total_amount, transaction_count) " +
+            RAW_ROLLUP_SQL + "AND t.user_id = :userId " + RAW_ROLLUP_GROUP_BY_SQL)
+    int rebuildForUser(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM monthly_rollups")
+    int deleteAllRows();
+    
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "INSERT INTO monthly_rollups (user_id, category_id, type, year_month, total_amount, transaction_count) " +
+            RAW_ROLLUP_SQL + RAW_ROLLUP_GROUP_BY_SQL)
+    int rebuildAll();
+    
+    /**
+     * Compara o rollup com a agregação recalculada a partir das transações.
+     * Colunas: user_id, category_id, type, year_month, valor no rollup, valor real,
+     * quantidade no rollup, quantidade real
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT COALESCE(r.user_id, a.user_id), COALESCE(r.category_id, a.category_id), " +
+            "COALESCE(r.type, a.type), COALESCE(r.year_month, a.year_month), " +
+            "COALESCE(r.total_amount, 0), COALESCE(a.total_amount, 0), " +
+            "COALESCE(r.transaction_count, 0), COALESCE(a.transaction_count, 0) " +
+            "FROM monthly_rollups r " +
+            "FULL OUTER JOIN (" + RAW_ROLLUP_SQL + RAW_ROLLUP_GROUP_BY_SQL + ") a " +
+            "ON a.user_id = r.user_id AND a.category_id = r.category_id " +
+            "AND a.type = r.type AND a.year_month = r.year_month " +
+            "WHERE COALESCE(r.total_amount, 0) <> COALESCE(a.total_amount, 0) " +
+            "OR COALESCE(r.transaction_count, 0) <> COALESCE(a.transaction_count, 0)")
+    List<Object[]> findDrift();
+}
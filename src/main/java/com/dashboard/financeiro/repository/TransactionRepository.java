@@ -1,21 +1,33 @@
 package com.dashboard.financeiro.repository;
 
+import com.dashboard.financeiro.dto.summary.CategoryTotalView;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
 import com.dashboard.financeiro.model.Category;
 import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.model.Transaction.TransactionType;
 import com.dashboard.financeiro.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     
+    // Linhas trazidas por ida ao banco nas consultas em Stream (cursor do driver)
+    String STREAM_FETCH_SIZE = "500";
+    
     List<Transaction> findByUser(User user);
     
     List<Transaction> findByUserAndCategory(User user, Category category);
@@ -31,6 +43,184 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             
     List<Transaction> findByUserOrderByDateDesc(User user);
     
+    // Projeção usada pelas leituras da API: uma única instrução SQL com o nome da categoria,
+    // sem hidratar Transaction/Category/User (e os papéis EAGER do usuário)
+    String TRANSACTION_VIEW_SELECT = "SELECT new com.dashboard.financeiro.dto.transaction.TransactionView(" +
+            "t.id, t.amount, t.type, t.date, t.description, c.id, c.name, c.type, " +
+            "t.originalCurrency, t.originalAmount) " +
+            "FROM Transaction t JOIN t.category c ";
+    
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findViewsByUserId(@Param("userId") Long userId);
+    
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionView> findViewsByFilters(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+    
+    // Primeira página da paginação por cursor
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId " +
+           "ORDER BY t.date DESC, t.id DESC")
+    Slice<TransactionView> findViewPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    // Páginas seguintes: continua estritamente após (date, id) do último item retornado,
+    // percorrendo o índice (user_id, date DESC, id DESC) sem OFFSET
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId AND t.date <= :date " +
+           "AND (t.date < :date OR t.id < :id) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    Slice<TransactionView> findViewPageByUserIdAfterCursor(
+            @Param("userId") Long userId,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Pageable pageable);
+    
+    // Consultas em Stream: devem ser consumidas dentro de uma transação e fechadas ao final
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId " +
+           "ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionView> streamViewsByUserId(@Param("userId") Long userId);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId AND t.date BETWEEN :startDate AND :endDate " +
+           "AND (:categoryId IS NULL OR c.id = :categoryId) " +
+           "ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionView> streamViewsByFilters(
+            @Param("userId") Long userId,
+            @Param("categoryId") Long categoryId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+    
+    // Ordem cronológica usada nos relatórios, lida por cursor para o PDF ser escrito em partes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(TRANSACTION_VIEW_SELECT +
+           "WHERE t.user.id = :userId AND t.date BETWEEN :startDate AND :endDate " +
+           "ORDER BY t.date ASC, t.id ASC")
+    Stream<TransactionView> streamViewsForReport(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+    
+    // Totais por categoria de um tipo nas bordas de meses parciais de um período (complemento do rollup).
+    // Um intervalo vazio é representado com início posterior ao fim
+    @Query("SELECT new com.dashboard.financeiro.dto.summary.CategoryTotalView(" +
+           "c.id, c.name, t.type, SUM(t.amount), COUNT(t)) " +
+           "FROM Transaction t JOIN t.category c " +
+           "WHERE t.user.id = :userId AND t.type = :type " +
+           "AND (t.date BETWEEN :headStart AND :headEnd OR t.date BETWEEN :tailStart AND :tailEnd) " +
+           "GROUP BY c.id, c.name, t.type")
+    List<CategoryTotalView> sumByCategoryAndTypeBetween(
+            @Param("userId") Long userId,
+            @Param("type") TransactionType type,
+            @Param("headStart") LocalDate headStart,
+            @Param("headEnd") LocalDate headEnd,
+            @Param("tailStart") LocalDate tailStart,
+            @Param("tailEnd") LocalDate tailEnd);
+    
+    /**
+     * Resumo financeiro completo em uma única instrução: totais por tipo e por (tipo, categoria)
+     * via GROUPING SETS. Meses completos vêm do rollup e as bordas parciais das transações.
+     * O conjunto vazio garante uma linha sempre que o usuário existe, mesmo sem movimentação.
+     * Colunas: grouping (7 = geral, 3 = tipo, 0 = tipo e categoria), type, category_id,
+     * category_name, total, quantidade
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT GROUPING(x.type, x.category_id, x.category_name) AS grp, " +
+            "x.type, x.category_id, x.category_name, SUM(x.amount), SUM(x.quantity) " +
+            "FROM users u LEFT JOIN (" +
+            "SELECT r.user_id, r.type, r.category_id, c.name AS category_name, " +
+            "r.total_amount AS amount, r.transaction_count AS quantity " +
+            "FROM monthly_rollups r JOIN categories c ON c.id = r.category_id " +
+            "WHERE r.user_id = (SELECT id FROM users WHERE username = :username) " +
+            "AND r.year_month BETWEEN :fromMonth AND :toMonth " +
+            "UNION ALL " +
+            "SELECT t.user_id, t.type, t.category_id, c.name, t.amount, 1 " +
+            "FROM transactions t JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id = (SELECT id FROM users WHERE username = :username) " +
+            "AND (t.date BETWEEN :headStart AND :headEnd OR t.date BETWEEN :tailStart AND :tailEnd)" +
+            ") x ON x.user_id = u.id " +
+            "WHERE u.username = :username " +
+            "GROUP BY GROUPING SETS ((), (x.type), (x.type, x.category_id, x.category_name))")
+    List<Object[]> summarizeByUsername(
+            @Param("username") String username,
+            @Param("fromMonth") Integer fromMonth,
+            @Param("toMonth") Integer toMonth,
+            @Param("headStart") LocalDate headStart,
+            @Param("headEnd") LocalDate headEnd,
+            @Param("tailStart") LocalDate tailStart,
+            @Param("tailEnd") LocalDate tailEnd);
+    
+    /**
+     * Impressão digital de cada mês com transações no período: md5 das linhas exibidas no relatório.
+     * Muda quando qualquer transação do mês (ou o nome da sua categoria) muda, e apenas nesse mês.
+     * Colunas: ano, mês, quantidade de transações, md5
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT CAST(EXTRACT(YEAR FROM t.date) AS integer), CAST(EXTRACT(MONTH FROM t.date) AS integer), COUNT(*), " +
+            "md5(string_agg(concat_ws('|', t.id, t.amount, t.type, t.date, t.description, t.category_id, c.name), " +
+            "',' ORDER BY t.id)) " +
+            "FROM transactions t LEFT JOIN categories c ON c.id = t.category_id " +
+            "WHERE t.user_id = :userId AND t.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1, 2")
+    List<Object[]> fingerprintMonths(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Totais por (tipo, categoria) convertidos com a taxa do dia de cada transação.
+     * As transações são somadas por dia antes da conversão, então a taxa é buscada
+     * uma vez por dia do período (no máximo 366 por ano), e não por transação.
+     * As duas taxas de cada fator vêm do mesmo dia do histórico.
+     * Dias sem taxa histórica usam :fallbackRate.
+     * Colunas: type, category_id, category_name, total convertido
+     */
+    @Query(nativeQuery = true, value =
+            "WITH daily AS (" +
+            "SELECT t.date AS day, t.type, t.category_id, SUM(t.amount) AS amount " +
+            "FROM transactions t " +
+            "WHERE t.user_id = (SELECT id FROM users WHERE username = :username) " +
+            "AND t.date BETWEEN :startDate AND :endDate AND t.category_id IS NOT NULL " +
+            "GROUP BY t.date, t.type, t.category_id), " +
+            "factors AS (" +
+            "SELECT d.day, " +
+            "(SELECT h.rate / NULLIF(s.rate, 0) FROM exchange_rate_history h " +
+            "JOIN exchange_rate_history s ON s.rate_date = h.rate_date AND s.currency = :sourceCurrency " +
+            "WHERE h.currency = :targetCurrency " +
+            "AND h.rate_date BETWEEN d.day - " + ExchangeRateHistoryRepository.LOOKBACK_DAYS + " AND d.day " +
+            "ORDER BY h.rate_date DESC LIMIT 1) AS factor " +
+            "FROM (SELECT DISTINCT day FROM daily) d) " +
+            "SELECT d.type, d.category_id, c.name, " +
+            "SUM(d.amount * COALESCE(f.factor, :fallbackRate)) " +
+            "FROM daily d JOIN factors f ON f.day = d.day JOIN categories c ON c.id = d.category_id " +
+            "GROUP BY d.type, d.category_id, c.name")
+    List<Object[]> summarizeConvertedByUsername(
+            @Param("username") String username,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("sourceCurrency") String sourceCurrency,
+            @Param("targetCurrency") String targetCurrency,
+            @Param("fallbackRate") BigDecimal fallbackRate);
+    
     @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.user = :user AND t.type = 'INCOME'")
     BigDecimal sumIncomeByUser(@Param("user") User user);
     
@@ -44,13 +234,36 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("startDate") LocalDate startDate, 
             @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT t.category.id as categoryId, t.category.name as categoryName, SUM(t.amount) as amount " +
-           "FROM Transaction t " +
+    @Query("SELECT new com.dashboard.financeiro.dto.summary.CategoryTotalView(" +
+           "c.id, c.name, t.type, SUM(t.amount), COUNT(t)) " +
+           "FROM Transaction t JOIN t.category c " +
            "WHERE t.user = :user AND t.type = :type AND t.date BETWEEN :startDate AND :endDate " +
-           "GROUP BY t.category.id, t.category.name")
-    List<Object[]> sumByUserAndTypeAndDateBetweenGroupByCategory(
+           "GROUP BY c.id, c.name, t.type")
+    List<CategoryTotalView> sumByUserAndTypeAndDateBetweenGroupByCategory(
             @Param("user") User user, 
             @Param("type") TransactionType type, 
             @Param("startDate") LocalDate startDate, 
             @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Maior id do próximo bloco de até :limit transações após :afterId (percorre a chave primária)
+     *
+     * @return null quando não há mais transações
+     */
+    @Query(nativeQuery = true, value =
+            "SELECT MAX(id) FROM (SELECT id FROM transactions WHERE id > :afterId ORDER BY id LIMIT :limit) chunk")
+    Long findChunkEndId(@Param("afterId") long afterId, @Param("limit") int limit);
+    
+    /**
+     * Preenche moeda e valor originais das transações anteriores à moeda original,
+     * todas registradas em BRL, no intervalo de ids (afterId, lastId]
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+            "UPDATE transactions SET original_currency = '" + Transaction.BASE_CURRENCY + "', " +
+            "original_amount = amount, exchange_rate = 1 " +
+            "WHERE id > :afterId AND id <= :lastId AND original_currency IS NULL")
+    int backfillBaseCurrency(@Param("afterId") long afterId, @Param("lastId") long lastId);
+    
+    boolean existsByOriginalCurrencyIsNull();
 }
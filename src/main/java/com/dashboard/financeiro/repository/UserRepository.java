@@ -2,6 +2,9 @@ package com.dashboard.financeiro.repository;
 
 import com.dashboard.financeiro.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,6 +12,23 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    
+    // Resolve apenas o id, sem carregar o usuário e seus papéis
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+    
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findDataVersionById(@Param("userId") Long userId);
+    
+    // Incremento atômico no banco: escritas concorrentes do mesmo usuário não perdem versões
+    @Modifying
+    @Query("UPDATE User u SET u.dataVersion = u.dataVersion + 1 WHERE u.id = :userId")
+    int incrementDataVersion(@Param("userId") Long userId);
+    
+    // LISTEN/NOTIFY do PostgreSQL: a mensagem só é entregue no commit da transação atual
+    @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM (SELECT pg_notify(:channel, :payload)) n")
+    long notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+    
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
 }
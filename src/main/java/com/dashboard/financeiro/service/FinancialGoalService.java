@@ -6,6 +6,7 @@ import com.dashboard.financeiro.model.User;
 import com.dashboard.financeiro.repository.CategoryRepository;
 import com.dashboard.financeiro.repository.FinancialGoalRepository;
 import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,9 @@ public class FinancialGoalService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+    
     public List<FinancialGoal> findAllByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
@@ -65,7 +69,10 @@ public class FinancialGoalService {
             goal.setAchieved(true);
         }
         
-        return financialGoalRepository.save(goal);
+        FinancialGoal saved = financialGoalRepository.save(goal);
+        userDataVersionService.bump(saved.getUser().getId());
+        
+        return saved;
     }
     
     @Transactional
@@ -79,7 +86,10 @@ public class FinancialGoalService {
             goal.setAchieved(true);
         }
         
-        return financialGoalRepository.save(goal);
+        FinancialGoal saved = financialGoalRepository.save(goal);
+        userDataVersionService.bump(saved.getUser().getId());
+        
+        return saved;
     }
     
     public FinancialGoal findById(Long id, String username) {
@@ -101,5 +111,6 @@ public class FinancialGoalService {
     public void delete(Long id, String username) {
         FinancialGoal goal = findById(id, username);
         financialGoalRepository.delete(goal);
+        userDataVersionService.bump(goal.getUser().getId());
     }
 }
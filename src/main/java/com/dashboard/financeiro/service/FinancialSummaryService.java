@@ -1,19 +1,20 @@
 package com.dashboard.financeiro.service;
 
+import com.dashboard.financeiro.config.cache.CacheConfig;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.CategorySummaryDto;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.FinancialGoalDto;
-import com.dashboard.financeiro.model.Category;
 import com.dashboard.financeiro.model.FinancialGoal;
 import com.dashboard.financeiro.model.Transaction.TransactionType;
-import com.dashboard.financeiro.model.User;
 import com.dashboard.financeiro.repository.FinancialGoalRepository;
 import com.dashboard.financeiro.repository.TransactionRepository;
-import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.rollup.RollupRange;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,19 +23,19 @@ import java.util.stream.Collectors;
 @Service
 public class FinancialSummaryService {
 
-    @Autowired
-    private TransactionRepository transactionRepository;
+    // Valores de GROUPING(type, category_id, category_name) na consulta do resumo
+    private static final int GROUPING_ALL = 7;
+    private static final int GROUPING_TYPE = 3;
     
     @Autowired
-    private UserRepository userRepository;
+    private TransactionRepository transactionRepository;
     
     @Autowired
     private FinancialGoalRepository financialGoalRepository;
     
+    @Cacheable(value = CacheConfig.FINANCIAL_SUMMARY_CACHE,
+            key = "@userDataVersionService.keyForUser(#username, #startDate, #endDate)")
     public FinancialSummaryResponse getFinancialSummary(String username, LocalDate startDate, LocalDate endDate) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
         // Se não houver datas definidas, utilize o mês atual
         if (startDate == null) {
             startDate = LocalDate.now().withDayOfMonth(1);
@@ -44,37 +45,65 @@ public class FinancialSummaryService {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
         
-        // Calcular somas
-        BigDecimal totalIncome = transactionRepository.sumByUserAndTypeAndDateBetween(
-                user, TransactionType.INCOME, startDate, endDate);
+        // Totais por tipo e por categoria em uma única consulta (rollup + bordas parciais)
+        RollupRange range = RollupRange.of(startDate, endDate);
+        List<Object[]> rows = transactionRepository.summarizeByUsername(
+                username,
+                range.getFromMonth(), range.getToMonth(),
+                range.getHeadStart(), range.getHeadEnd(),
+                range.getTailStart(), range.getTailEnd());
         
-        BigDecimal totalExpense = transactionRepository.sumByUserAndTypeAndDateBetween(
-                user, TransactionType.EXPENSE, startDate, endDate);
-        
-        // Ajustar valores nulos
-        if (totalIncome == null) {
-            totalIncome = BigDecimal.ZERO;
+        // A linha do total geral só não existe quando o usuário não existe
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Usuário não encontrado");
         }
         
-        if (totalExpense == null) {
-            totalExpense = BigDecimal.ZERO;
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        List<CategorySummaryDto> expensesByCategory = new ArrayList<>();
+        List<CategorySummaryDto> incomesByCategory = new ArrayList<>();
+        
+        for (Object[] row : rows) {
+            int grouping = ((Number) row[0]).intValue();
+            
+            // Total geral e linhas de usuário sem movimentação não têm tipo
+            if (grouping == GROUPING_ALL || row[1] == null) {
+                continue;
+            }
+            
+            TransactionType type = TransactionType.valueOf((String) row[1]);
+            BigDecimal amount = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+            
+            if (grouping == GROUPING_TYPE) {
+                if (type == TransactionType.INCOME) {
+                    totalIncome = amount;
+                } else {
+                    totalExpense = amount;
+                }
+                continue;
+            }
+            
+            CategorySummaryDto dto = CategorySummaryDto.builder()
+                    .categoryId(((Number) row[2]).longValue())
+                    .categoryName((String) row[3])
+                    .amount(amount)
+                    .categoryType(type.getDescription())
+                    .build();
+            
+            if (type == TransactionType.INCOME) {
+                incomesByCategory.add(dto);
+            } else {
+                expensesByCategory.add(dto);
+            }
         }
         
         // Calcular balanço
         BigDecimal currentBalance = totalIncome.subtract(totalExpense);
         
         // Obter metas atingidas
-        List<FinancialGoal> achievedGoals = financialGoalRepository.findByUserAndAchievedTrue(user);
+        List<FinancialGoal> achievedGoals = financialGoalRepository.findByUserUsernameAndAchievedTrue(username);
         List<FinancialGoalDto> achievedGoalDtos = mapToFinancialGoalDtos(achievedGoals);
         
-        // Obter despesas por categoria
-        List<CategorySummaryDto> expensesByCategory = getCategorySummaries(
-                user, TransactionType.EXPENSE, startDate, endDate);
-        
-        // Obter receitas por categoria
-        List<CategorySummaryDto> incomesByCategory = getCategorySummaries(
-                user, TransactionType.INCOME, startDate, endDate);
-        
         // Criar e retornar o resumo
         return FinancialSummaryResponse.builder()
                 .currentBalance(currentBalance)
@@ -86,30 +115,66 @@ public class FinancialSummaryService {
                 .build();
     }
     
-    private List<CategorySummaryDto> getCategorySummaries(
-            User user, TransactionType type, LocalDate startDate, LocalDate endDate) {
+    /**
+     * Resumo convertido para outra moeda com a taxa do dia de cada transação.
+     * A conversão é feita no banco sobre os totais diários; dias sem taxa histórica
+     * e as metas (que não têm data) usam a taxa atual
+     */
+    public FinancialSummaryResponse getSummaryAtTransactionDates(String username, LocalDate startDate, LocalDate endDate,
+                                                                 String sourceCurrency, String targetCurrency,
+                                                                 BigDecimal latestRate) {
+        if (startDate == null) {
+            startDate = LocalDate.now().withDayOfMonth(1);
+        }
+        
+        if (endDate == null) {
+            endDate = startDate.plusMonths(1).minusDays(1);
+        }
         
-        List<Object[]> categorySummaries = transactionRepository.sumByUserAndTypeAndDateBetweenGroupByCategory(
-                user, type, startDate, endDate);
+        List<Object[]> rows = transactionRepository.summarizeConvertedByUsername(
+                username, startDate, endDate, sourceCurrency, targetCurrency, latestRate);
         
-        List<CategorySummaryDto> result = new ArrayList<>();
+        BigDecimal totalIncome = BigDecimal.ZERO;
+        BigDecimal totalExpense = BigDecimal.ZERO;
+        List<CategorySummaryDto> expensesByCategory = new ArrayList<>();
+        List<CategorySummaryDto> incomesByCategory = new ArrayList<>();
         
-        for (Object[] summary : categorySummaries) {
-            Long categoryId = (Long) summary[0];
-            String categoryName = (String) summary[1];
-            BigDecimal amount = (BigDecimal) summary[2];
+        for (Object[] row : rows) {
+            TransactionType type = TransactionType.valueOf((String) row[0]);
+            BigDecimal amount = ((BigDecimal) row[3]).setScale(2, RoundingMode.HALF_UP);
             
             CategorySummaryDto dto = CategorySummaryDto.builder()
-                    .categoryId(categoryId)
-                    .categoryName(categoryName)
+                    .categoryId(((Number) row[1]).longValue())
+                    .categoryName((String) row[2])
                     .amount(amount)
                     .categoryType(type.getDescription())
                     .build();
             
-            result.add(dto);
+            if (type == TransactionType.INCOME) {
+                totalIncome = totalIncome.add(amount);
+                incomesByCategory.add(dto);
+            } else {
+                totalExpense = totalExpense.add(amount);
+                expensesByCategory.add(dto);
+            }
         }
         
-        return result;
+        List<FinancialGoalDto> achievedGoals = mapToFinancialGoalDtos(
+                financialGoalRepository.findByUserUsernameAndAchievedTrue(username));
+        for (FinancialGoalDto goal : achievedGoals) {
+            goal.setTargetAmount(goal.getTargetAmount().multiply(latestRate).setScale(2, RoundingMode.HALF_UP));
+            goal.setCurrentAmount(goal.getCurrentAmount().multiply(latestRate).setScale(2, RoundingMode.HALF_UP));
+        }
+        
+        return FinancialSummaryResponse.builder()
+                .currentBalance(totalIncome.subtract(totalExpense))
+                .totalIncome(totalIncome)
+                .totalExpense(totalExpense)
+                .achievedGoals(achievedGoals)
+                .expensesByCategory(expensesByCategory)
+                .incomesByCategory(incomesByCategory)
+                .currency(targetCurrency)
+                .build();
     }
     
     private List<FinancialGoalDto> mapToFinancialGoalDtos(List<FinancialGoal> goals) {
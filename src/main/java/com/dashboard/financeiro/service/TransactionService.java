@@ -1,17 +1,32 @@
 package com.dashboard.financeiro.service;
 
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse;
+import com.dashboard.financeiro.dto.transaction.TransactionRequest;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
 import com.dashboard.financeiro.model.Transaction;
+import com.dashboard.financeiro.util.TransactionCursor;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     
     Transaction save(Transaction transaction, String username);
     
-    List<Transaction> findAllByUser(String username);
+    TransactionBatchResponse saveBatch(List<TransactionRequest> requests, String username);
     
-    List<Transaction> findByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate);
+    List<TransactionView> findAllByUser(String username);
+    
+    Slice<TransactionView> findPageByUser(String username, TransactionCursor cursor, int size);
+    
+    List<TransactionView> findByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate);
+    
+    void streamAllByUser(String username, Consumer<TransactionView> consumer);
+    
+    void streamByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate,
+                         Consumer<TransactionView> consumer);
     
     Transaction update(Long id, Transaction transaction, String username);
     
@@ -1,18 +1,45 @@
 package com.dashboard.financeiro.service;
 
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse;
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse.RowResult;
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse.RowStatus;
+import com.dashboard.financeiro.dto.transaction.TransactionRequest;
+import com.dashboard.financeiro.dto.transaction.TransactionResponse;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
 import com.dashboard.financeiro.model.Category;
 import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.model.User;
 import com.dashboard.financeiro.repository.CategoryRepository;
 import com.dashboard.financeiro.repository.TransactionRepository;
 import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.currency.BaseCurrencyConverter;
+import com.dashboard.financeiro.service.currency.CrossRateTable;
+import com.dashboard.financeiro.service.rollup.MonthlyRollupService;
+import com.dashboard.financeiro.service.rollup.RollupDeltas;
+import com.dashboard.financeiro.util.TransactionCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
@@ -26,6 +53,24 @@ public class TransactionServiceImpl implements TransactionService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+    
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+    
+    @Autowired
+    private BaseCurrencyConverter baseCurrencyConverter;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+    
     @Override
     @Transactional
     public Transaction save(Transaction transaction, String username) {
@@ -42,21 +87,156 @@ public class TransactionServiceImpl implements TransactionService {
         
         transaction.setUser(user);
         transaction.setCategory(category);
+        baseCurrencyConverter.apply(transaction);
         
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.apply(new RollupDeltas().add(saved));
+        userDataVersionService.bump(user.getId());
+        
+        return saved;
     }
     
     @Override
-    public List<Transaction> findAllByUser(String username) {
+    @Transactional
+    public TransactionBatchResponse saveBatch(List<TransactionRequest> requests, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
-        return transactionRepository.findByUserOrderByDateDesc(user);
+        // Carrega todas as categorias distintas do lote em uma única consulta
+        Set<Long> categoryIds = requests.stream()
+                .filter(Objects::nonNull)
+                .map(TransactionRequest::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        
+        Map<Long, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAllById(categoryIds)) {
+            categories.put(category.getId(), category);
+        }
+        
+        // Um único snapshot de taxas para o lote, obtido só se alguma linha estiver em outra moeda
+        boolean needsRates = requests.stream()
+                .filter(Objects::nonNull)
+                .anyMatch(request -> !BaseCurrencyConverter.isBase(request.getCurrency()));
+        CrossRateTable crossRates = needsRates ? baseCurrencyConverter.currentRates() : null;
+        
+        List<RowResult> results = new ArrayList<>(requests.size());
+        RollupDeltas rollupDeltas = new RollupDeltas();
+        int created = 0;
+        int pending = 0;
+        
+        for (int index = 0; index < requests.size(); index++) {
+            TransactionRequest request = requests.get(index);
+            String error = validateBatchRow(request, categories, user);
+            
+            if (error != null) {
+                results.add(RowResult.builder()
+                        .index(index)
+                        .status(RowStatus.ERROR)
+                        .error(error)
+                        .build());
+                continue;
+            }
+            
+            Transaction transaction = request.toEntity();
+            try {
+                baseCurrencyConverter.apply(transaction, crossRates);
+            } catch (IllegalArgumentException e) {
+                results.add(RowResult.builder()
+                        .index(index)
+                        .status(RowStatus.ERROR)
+                        .error(e.getMessage())
+                        .build());
+                continue;
+            }
+            
+            transaction.setUser(user);
+            transaction.setCategory(categories.get(request.getCategoryId()));
+            transactionRepository.save(transaction);
+            rollupDeltas.add(transaction);
+            
+            results.add(RowResult.builder()
+                    .index(index)
+                    .status(RowStatus.CREATED)
+                    .transaction(TransactionResponse.fromEntity(transaction))
+                    .build());
+            created++;
+            
+            // Envia o lote ao banco e libera o contexto de persistência para manter a memória estável
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        
+        // Uma atualização do rollup por (categoria, tipo, mês), independente do tamanho do lote
+        if (!rollupDeltas.isEmpty()) {
+            monthlyRollupService.apply(rollupDeltas);
+            userDataVersionService.bump(user.getId());
+        }
+        
+        return TransactionBatchResponse.builder()
+                .total(requests.size())
+                .created(created)
+                .failed(requests.size() - created)
+                .results(results)
+                .build();
+    }
+    
+    private String validateBatchRow(TransactionRequest request, Map<Long, Category> categories, User user) {
+        if (request == null) {
+            return "Transação vazia";
+        }
+        
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        
+        Category category = categories.get(request.getCategoryId());
+        if (category == null) {
+            return "Categoria não encontrada";
+        }
+        
+        // Verifica se a categoria pertence ao usuário ou é uma categoria global
+        if (category.getUser() != null && !category.getUser().getId().equals(user.getId())) {
+            return "Acesso negado à categoria";
+        }
+        
+        return null;
+    }
+    
+    @Override
+    public List<TransactionView> findAllByUser(String username) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        return transactionRepository.findViewsByUserId(userId);
     }
     
     @Override
-    public List<Transaction> findByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate) {
-        User user = userRepository.findByUsername(username)
+    public Slice<TransactionView> findPageByUser(String username, TransactionCursor cursor, int size) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        // A ordenação vem da própria consulta; o Slice busca size + 1 linhas para saber se há mais
+        PageRequest pageRequest = PageRequest.of(0, size);
+        
+        if (cursor == null) {
+            return transactionRepository.findViewPageByUserId(userId, pageRequest);
+        }
+        
+        return transactionRepository.findViewPageByUserIdAfterCursor(
+                userId, cursor.getDate(), cursor.getId(), pageRequest);
+    }
+    
+    @Override
+    public List<TransactionView> findByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate) {
+        Long userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         // Se não houver datas definidas, utilize o mês atual
@@ -68,13 +248,41 @@ public class TransactionServiceImpl implements TransactionService {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
         
-        if (categoryId != null) {
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> new RuntimeException("Categoria não encontrada"));
-            
-            return transactionRepository.findByUserAndCategoryAndDateBetween(user, category, startDate, endDate);
-        } else {
-            return transactionRepository.findByUserAndDateBetween(user, startDate, endDate);
+        // O filtro por usuário na própria consulta já garante que só transações dele sejam retornadas
+        return transactionRepository.findViewsByFilters(userId, categoryId, startDate, endDate);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllByUser(String username, Consumer<TransactionView> consumer) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        try (Stream<TransactionView> transactions = transactionRepository.streamViewsByUserId(userId)) {
+            transactions.forEach(consumer);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByFilters(String username, Long categoryId, LocalDate startDate, LocalDate endDate,
+                                Consumer<TransactionView> consumer) {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        
+        // Se não houver datas definidas, utilize o mês atual
+        if (startDate == null) {
+            startDate = LocalDate.now().withDayOfMonth(1);
+        }
+        
+        if (endDate == null) {
+            endDate = startDate.plusMonths(1).minusDays(1);
+        }
+        
+        // Projeções não são gerenciadas pelo contexto de persistência, então a memória não cresce com o histórico
+        try (Stream<TransactionView> transactions = transactionRepository.streamViewsByFilters(
+                userId, categoryId, startDate, endDate)) {
+            transactions.forEach(consumer);
         }
     }
     
@@ -83,8 +291,16 @@ public class TransactionServiceImpl implements TransactionService {
     public Transaction update(Long id, Transaction transactionDetails, String username) {
         Transaction transaction = findById(id, username);
         
-        // Atualiza os campos
-        transaction.setAmount(transactionDetails.getAmount());
+        // Retira do rollup os valores atuais antes de alterá-los
+        RollupDeltas rollupDeltas = new RollupDeltas().subtract(transaction);
+        
+        // Atualiza os campos; o valor em BRL só é recalculado se a moeda ou o valor original mudarem
+        if (BaseCurrencyConverter.originalChanged(transaction, transactionDetails)) {
+            transaction.setAmount(transactionDetails.getAmount());
+            transaction.setOriginalAmount(transactionDetails.getOriginalAmount());
+            transaction.setOriginalCurrency(transactionDetails.getOriginalCurrency());
+            baseCurrencyConverter.apply(transaction);
+        }
         transaction.setDescription(transactionDetails.getDescription());
         transaction.setDate(transactionDetails.getDate());
         transaction.setType(transactionDetails.getType());
@@ -105,7 +321,11 @@ public class TransactionServiceImpl implements TransactionService {
             transaction.setCategory(newCategory);
         }
         
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        monthlyRollupService.apply(rollupDeltas.add(saved));
+        userDataVersionService.bump(saved.getUser().getId());
+        
+        return saved;
     }
     
     @Override
@@ -113,6 +333,8 @@ public class TransactionServiceImpl implements TransactionService {
     public void delete(Long id, String username) {
         Transaction transaction = findById(id, username);
         transactionRepository.delete(transaction);
+        monthlyRollupService.apply(new RollupDeltas().subtract(transaction));
+        userDataVersionService.bump(transaction.getUser().getId());
     }
     
     @Override
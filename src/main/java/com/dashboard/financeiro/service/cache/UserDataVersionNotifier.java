@@ -0,0 +1,139 @@
+package com.dashboard.financeiro.service.cache;
+
+import com.dashboard.financeiro.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.BiConsumer;
+
+/**
+ * Propaga a versão dos dados entre instâncias pelo LISTEN/NOTIFY do PostgreSQL.
+ * Cada escrita publica "usuário:versão" no canal, e o banco só entrega a mensagem no commit.
+ * Cada instância mantém uma conexão dedicada (fora do uso normal do pool) escutando o canal
+ * e repassa as versões recebidas ao {@link UserDataVersionService}. Enquanto a escuta não está
+ * ativa (início, queda do banco), {@link #isListening()} é falso e as versões são lidas do banco
+ */
+@Component
+public class UserDataVersionNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDataVersionNotifier.class);
+
+    static final String CHANNEL = "user_data_version";
+
+    private static final int POLL_MS = 1000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.cache.version-notify:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.version-notify-reconnect-ms:5000}")
+    private long reconnectMs;
+
+    private volatile boolean listening;
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * Publica a nova versão. Deve ser chamado na transação da escrita: se ela for desfeita,
+     * nada é entregue
+     */
+    public void publish(Long userId, long version) {
+        if (enabled) {
+            userRepository.notifyChannel(CHANNEL, userId + ":" + version);
+        }
+    }
+
+    /**
+     * Indica se as notificações estão chegando: só então versões em memória podem ser usadas
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    /**
+     * Inicia a escuta em uma thread própria
+     *
+     * @param onVersion recebe cada versão publicada, inclusive as desta instância
+     * @param onReset chamado a cada (re)conexão, antes de a escuta valer: notificações anteriores
+     *                podem ter sido perdidas, então as versões em memória devem ser descartadas
+     */
+    public synchronized void start(BiConsumer<Long, Long> onVersion, Runnable onReset) {
+        if (!enabled || listener != null) {
+            return;
+        }
+        running = true;
+        listener = new Thread(() -> listen(onVersion, onReset), "data-version-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen(BiConsumer<Long, Long> onVersion, Runnable onReset) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Escritas confirmadas a partir daqui são notificadas; as anteriores já estão no banco
+                onReset.run();
+                listening = true;
+                logger.info("Versões de dados sincronizadas pelo canal {}", CHANNEL);
+
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(POLL_MS);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            apply(notification.getParameter(), onVersion);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("Escuta das versões de dados interrompida: {}", e.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+
+            try {
+                Thread.sleep(reconnectMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void apply(String payload, BiConsumer<Long, Long> onVersion) {
+        int separator = payload.indexOf(':');
+        try {
+            onVersion.accept(Long.parseLong(payload.substring(0, separator)),
+                    Long.parseLong(payload.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            logger.warn("Notificação de versão inválida: {}", payload);
+        }
+    }
+}
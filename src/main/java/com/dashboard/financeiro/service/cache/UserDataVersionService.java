@@ -0,0 +1,147 @@
+package com.dashboard.financeiro.service.cache;
+
+import com.dashboard.financeiro.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Versão dos dados financeiros de cada usuário (users.data_version).
+ * Toda escrita em transações ou metas incrementa a versão na mesma transação do banco,
+ * e as chaves de cache incluem a versão: entradas antigas deixam de ser encontradas e expiram sozinhas.
+ * As versões lidas ficam em memória, então acertos de cache e ETags não consultam o banco.
+ * Escritas desta instância atualizam a memória após o commit, e as de qualquer instância chegam
+ * pelo {@link UserDataVersionNotifier}. Sem a escuta ativa, a versão é lida do banco a cada uso;
+ * app.cache.version-ttl-ms limita quanto tempo uma versão fica em memória caso uma notificação se perca
+ */
+@Service
+public class UserDataVersionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDataVersionNotifier userDataVersionNotifier;
+
+    @Value("${app.cache.version-ttl-ms:60000}")
+    private long versionTtlMs;
+
+    @Value("${app.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    // Nome de usuário não muda: o id resolvido pode ser mantido enquanto for usado
+    private Cache<String, Long> userIds;
+    private Cache<Long, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        userIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+        versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(versionTtlMs))
+                .build();
+        userDataVersionNotifier.start(this::remember, versions::invalidateAll);
+    }
+
+    public long currentVersion(String username) {
+        Long userId = userIds.getIfPresent(username);
+        if (userId == null) {
+            Optional<Long> found = userRepository.findIdByUsername(username);
+            if (found.isEmpty()) {
+                return 0L;
+            }
+            userId = found.get();
+            userIds.put(username, userId);
+        }
+        return currentVersion(userId);
+    }
+
+    public long currentVersion(Long userId) {
+        if (!userDataVersionNotifier.isListening()) {
+            // Escritas de outras instâncias não chegariam: a memória não é confiável
+            return userRepository.findDataVersionById(userId).orElse(0L);
+        }
+        Long version = versions.getIfPresent(userId);
+        if (version != null) {
+            return version;
+        }
+        return remember(userId, userRepository.findDataVersionById(userId).orElse(0L));
+    }
+
+    /**
+     * Incrementa a versão. Deve participar da transação da escrita que altera os dados
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bump(Long userId) {
+        userRepository.incrementDataVersion(userId);
+
+        // A linha fica bloqueada até o commit, então a versão lida aqui é a que será gravada
+        long version = userRepository.findDataVersionById(userId).orElse(0L);
+        userDataVersionNotifier.publish(userId, version);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(userId, version);
+            }
+        });
+    }
+
+    /**
+     * Chave de cache por nome de usuário: usuário, versão atual, data de hoje
+     * (períodos padrão dependem dela) e os parâmetros da consulta
+     */
+    public String keyForUser(String username, Object... parts) {
+        return buildKey(username, currentVersion(username), parts);
+    }
+
+    /**
+     * Chave de cache por id do usuário, no mesmo formato de {@link #keyForUser(String, Object...)}
+     */
+    public String keyForUserId(Long userId, Object... parts) {
+        return buildKey(userId, currentVersion(userId), parts);
+    }
+
+    /**
+     * ETag forte para respostas HTTP: hash da mesma chave usada no cache.
+     * Custa apenas a leitura da versão, então pode ser conferido antes de qualquer agregação
+     */
+    public String etagForUser(String username, Object... parts) {
+        String key = keyForUser(username, parts);
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Versões só crescem: uma leitura antiga que chegue depois do commit não substitui a nova
+     */
+    private long remember(Long userId, long version) {
+        return versions.asMap().merge(userId, version, Math::max);
+    }
+
+    private String buildKey(Object user, long version, Object... parts) {
+        StringJoiner key = new StringJoiner(":");
+        key.add(String.valueOf(user));
+        key.add("v" + version);
+        key.add(LocalDate.now().toString());
+        for (Object part : parts) {
+            key.add(String.valueOf(part));
+        }
+        return key.toString();
+    }
+}
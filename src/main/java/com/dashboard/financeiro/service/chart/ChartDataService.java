@@ -1,17 +1,18 @@
 package com.dashboard.financeiro.service.chart;
 
+import com.dashboard.financeiro.config.cache.CacheConfig;
 import com.dashboard.financeiro.dto.chart.CategoryExpenseChartDto;
 import com.dashboard.financeiro.dto.chart.GoalsProgressChartDto;
 import com.dashboard.financeiro.dto.chart.MonthlyTrendChartDto;
-import com.dashboard.financeiro.model.Category;
+import com.dashboard.financeiro.dto.summary.CategoryTotalView;
 import com.dashboard.financeiro.model.FinancialGoal;
-import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.model.Transaction.TransactionType;
-import com.dashboard.financeiro.model.User;
 import com.dashboard.financeiro.repository.FinancialGoalRepository;
-import com.dashboard.financeiro.repository.TransactionRepository;
 import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.rollup.MonthlyRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -21,20 +22,23 @@ import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ChartDataService {
 
-    @Autowired
-    private TransactionRepository transactionRepository;
-
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private FinancialGoalRepository financialGoalRepository;
 
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    // Limite de meses do gráfico de tendência (o parâmetro vem da requisição)
+    @Value("${app.charts.trend.max-months:120}")
+    private int maxTrendMonths;
+
     private static final String[] CHART_COLORS = {
             "#4e73df", "#1cc88a", "#36b9cc", "#f6c23e", "#e74a3b", "#858796",
             "#5a5c69", "#6610f2", "#6f42c1", "#e83e8c", "#fd7e14", "#20c9a6"
@@ -43,10 +47,9 @@ public class ChartDataService {
     /**
      * Gera dados formatados para gráfico de distribuição de despesas por categoria
      */
-    public CategoryExpenseChartDto getExpensesByCategory(String username, LocalDate startDate, LocalDate endDate) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-
+    @Cacheable(value = CacheConfig.EXPENSES_CHART_CACHE,
+            key = "@userDataVersionService.keyForUserId(#userId, #startDate, #endDate)")
+    public CategoryExpenseChartDto getExpensesByCategory(Long userId, LocalDate startDate, LocalDate endDate) {
         // Configurar datas padrão se não fornecidas
         if (startDate == null) {
             startDate = LocalDate.now().withDayOfMonth(1);
@@ -55,37 +58,21 @@ public class ChartDataService {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
 
-        // Buscar transações de despesa do usuário
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, startDate, endDate)
-                .stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.toList());
-
-        // Agrupar despesas por categoria
-        Map<Category, BigDecimal> expensesByCategory = new HashMap<>();
-        for (Transaction transaction : transactions) {
-            Category category = transaction.getCategory();
-            if (category == null) {
-                continue;
-            }
-            
-            BigDecimal amount = expensesByCategory.getOrDefault(category, BigDecimal.ZERO);
-            amount = amount.add(transaction.getAmount());
-            expensesByCategory.put(category, amount);
-        }
+        // Totais de despesa agrupados no banco (rollup mensal + bordas parciais), sem carregar categorias
+        List<CategoryTotalView> expensesByCategory = monthlyRollupService.sumByCategory(
+                userId, TransactionType.EXPENSE, startDate, endDate);
 
         // Calcular total de despesas
-        BigDecimal totalExpenses = transactions.stream()
-                .map(Transaction::getAmount)
+        BigDecimal totalExpenses = expensesByCategory.stream()
+                .map(CategoryTotalView::getAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Preparar dados para o gráfico
         List<CategoryExpenseChartDto.CategoryData> categoriesData = new ArrayList<>();
         int colorIndex = 0;
 
-        for (Map.Entry<Category, BigDecimal> entry : expensesByCategory.entrySet()) {
-            Category category = entry.getKey();
-            BigDecimal amount = entry.getValue();
+        for (CategoryTotalView total : expensesByCategory) {
+            BigDecimal amount = total.getAmount();
             
             // Calcular percentual da categoria
             BigDecimal percentage = BigDecimal.ZERO;
@@ -99,9 +86,10 @@ public class ChartDataService {
             colorIndex++;
             
             CategoryExpenseChartDto.CategoryData categoryData = CategoryExpenseChartDto.CategoryData.builder()
-                    .categoryId(category.getId())
-                    .categoryName(category.getName())
+                    .categoryId(total.getCategoryId())
+                    .categoryName(total.getCategoryName())
                     .amount(amount)
+                    .transactionCount(total.getTransactionCount())
                     .percentage(percentage)
                     .color(color)
                     .build();
@@ -121,68 +109,52 @@ public class ChartDataService {
     /**
      * Gera dados formatados para gráfico de tendência de receitas e despesas ao longo dos meses
      */
-    public MonthlyTrendChartDto getMonthlyTrend(String username, Integer months) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-
+    @Cacheable(value = CacheConfig.TREND_CHART_CACHE,
+            key = "@userDataVersionService.keyForUserId(#userId, #months)")
+    public MonthlyTrendChartDto getMonthlyTrend(Long userId, Integer months) {
         // Definir período
         if (months == null || months <= 0) {
             months = 12; // Padrão: últimos 12 meses
         }
+        months = Math.min(months, maxTrendMonths);
 
         LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusMonths(months - 1).withDayOfMonth(1);
+        YearMonth firstMonth = YearMonth.from(endDate).minusMonths(months - 1);
+        LocalDate startDate = firstMonth.atDay(1);
+
+        // Totais do período agrupados por mês e tipo em uma única consulta
+        BigDecimal[] incomes = new BigDecimal[months];
+        BigDecimal[] expenses = new BigDecimal[months];
+        Arrays.fill(incomes, BigDecimal.ZERO);
+        Arrays.fill(expenses, BigDecimal.ZERO);
+
+        for (Object[] row : monthlyRollupService.sumByMonthAndType(userId, startDate, endDate)) {
+            int yearMonth = ((Number) row[0]).intValue();
+            int index = (yearMonth / 100 - firstMonth.getYear()) * 12 + (yearMonth % 100 - firstMonth.getMonthValue());
+            if (index < 0 || index >= months) {
+                continue;
+            }
 
-        // Buscar todas as transações do período
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, startDate, endDate);
+            BigDecimal amount = (BigDecimal) row[2];
+            if (TransactionType.INCOME.name().equals(row[1])) {
+                incomes[index] = incomes[index].add(amount);
+            } else {
+                expenses[index] = expenses[index].add(amount);
+            }
+        }
 
         // Preparar dados por mês
-        List<MonthlyTrendChartDto.MonthData> monthsData = new ArrayList<>();
+        List<MonthlyTrendChartDto.MonthData> monthsData = new ArrayList<>(months);
         DateTimeFormatter monthFormatter = DateTimeFormatter.ofPattern("MMM/yyyy", new Locale("pt", "BR"));
         BigDecimal maxAmount = BigDecimal.ZERO;
 
-        // Criar uma lista de todos os meses no período
-        List<YearMonth> yearMonths = new ArrayList<>();
-        YearMonth current = YearMonth.from(startDate);
-        YearMonth end = YearMonth.from(endDate);
-        
-        while (!current.isAfter(end)) {
-            yearMonths.add(current);
-            current = current.plusMonths(1);
-        }
-
-        // Para cada mês, calcular receitas e despesas
-        for (YearMonth yearMonth : yearMonths) {
-            LocalDate monthStart = yearMonth.atDay(1);
-            LocalDate monthEnd = yearMonth.atEndOfMonth();
-            
-            // Filtrar transações do mês
-            List<Transaction> monthTransactions = transactions.stream()
-                    .filter(t -> !t.getDate().isBefore(monthStart) && !t.getDate().isAfter(monthEnd))
-                    .collect(Collectors.toList());
-            
-            // Calcular receitas
-            BigDecimal income = monthTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.INCOME)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Calcular despesas
-            BigDecimal expense = monthTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.EXPENSE)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            // Calcular saldo
-            BigDecimal balance = income.subtract(expense);
+        for (int index = 0; index < months; index++) {
+            YearMonth yearMonth = firstMonth.plusMonths(index);
+            BigDecimal income = incomes[index];
+            BigDecimal expense = expenses[index];
             
             // Atualizar valor máximo para escala do gráfico
-            if (income.compareTo(maxAmount) > 0) {
-                maxAmount = income;
-            }
-            if (expense.compareTo(maxAmount) > 0) {
-                maxAmount = expense;
-            }
+            maxAmount = maxAmount.max(income).max(expense);
             
             // Criar dados do mês
             MonthlyTrendChartDto.MonthData monthData = MonthlyTrendChartDto.MonthData.builder()
@@ -191,7 +163,7 @@ public class ChartDataService {
                     .monthNumber(yearMonth.getMonthValue())
                     .incomeAmount(income)
                     .expenseAmount(expense)
-                    .balance(balance)
+                    .balance(income.subtract(expense))
                     .build();
             
             monthsData.add(monthData);
@@ -206,12 +178,11 @@ public class ChartDataService {
     /**
      * Gera dados formatados para gráfico de progresso das metas financeiras
      */
-    public GoalsProgressChartDto getGoalsProgress(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-        
+    @Cacheable(value = CacheConfig.GOALS_CHART_CACHE,
+            key = "@userDataVersionService.keyForUserId(#userId)")
+    public GoalsProgressChartDto getGoalsProgress(Long userId) {
         // Buscar todas as metas do usuário
-        List<FinancialGoal> goals = financialGoalRepository.findByUser(user);
+        List<FinancialGoal> goals = financialGoalRepository.findByUserId(userId);
         
         // Preparar dados de metas
         List<GoalsProgressChartDto.GoalData> goalsData = new ArrayList<>();
@@ -268,4 +239,12 @@ public class ChartDataService {
                 .goals(goalsData)
                 .build();
     }
+
+    /**
+     * Resolve o id do usuário; os métodos de gráficos recebem o id para compartilhar a mesma chave de cache
+     */
+    public Long findUserId(String username) {
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+    }
 }
@@ -0,0 +1,201 @@
+package com.dashboard.financeiro.service.chart;
+
+import com.dashboard.financeiro.config.executor.ExecutorConfig;
+import com.dashboard.financeiro.dto.admin.CacheStatsResponse.CacheStats;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itextpdf.awt.PdfGraphics2D;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfWriter;
+import jakarta.annotation.PostConstruct;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartUtils;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PiePlot;
+import org.jfree.data.general.DefaultPieDataset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Renderização de gráficos em um pool próprio, com cache dos arquivos gerados.
+ * A chave é o hash do título, das fatias (na ordem, que define as cores), das dimensões
+ * e do formato: gráficos idênticos são desenhados uma única vez, e pedidos simultâneos
+ * do mesmo gráfico aguardam a mesma renderização. O cache é limitado em bytes
+ */
+@Service
+public class ChartRenderingService {
+
+    public enum ChartFormat {
+        PNG,    // Imagem para o endpoint de gráficos
+        PDF     // Página de PDF vetorial, importada nos relatórios
+    }
+
+    @Autowired
+    @Qualifier(ExecutorConfig.CHART_RENDER_EXECUTOR)
+    private Executor chartRenderExecutor;
+
+    @Value("${app.charts.render.cache-max-bytes:33554432}")
+    private long cacheMaxBytes;
+
+    @Value("${app.charts.render.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private AsyncCache<String, byte[]> artifacts;
+
+    @PostConstruct
+    public void init() {
+        artifacts = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String key, byte[] bytes) -> bytes.length)
+                .expireAfterAccess(Duration.ofHours(1))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Gráfico de pizza com as fatias na ordem informada
+     *
+     * @throws IllegalStateException se a renderização falhar, passar de app.charts.render.timeout-ms
+     *                               ou o pool de renderização estiver cheio
+     */
+    public byte[] renderPieChart(String title, Map<String, BigDecimal> slices, int width, int height, ChartFormat format) {
+        String key = key(title, slices, width, height, format);
+
+        // Falhas não ficam no cache: o futuro com erro é descartado e a próxima chamada tenta de novo
+        CompletableFuture<byte[]> rendered = artifacts.get(key, (ignored, executor) -> {
+            try {
+                return CompletableFuture.supplyAsync(
+                        () -> render(createPieChart(title, slices), width, height, format), chartRenderExecutor);
+            } catch (RejectedExecutionException e) {
+                // Pool cheio: falha imediata, sem desenhar na thread que pediu
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Renderização de gráficos indisponível no momento"));
+            }
+        });
+
+        try {
+            return rendered.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Tempo esgotado ao renderizar o gráfico");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha ao renderizar o gráfico", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Renderização do gráfico interrompida");
+        }
+    }
+
+    /**
+     * Acertos, faltas e remoções, no mesmo formato das estatísticas dos demais caches
+     */
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.Cache<String, byte[]> cache = artifacts.synchronous();
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+
+        return CacheStats.builder()
+                .name("renderedCharts")
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .estimatedSize(cache.estimatedSize())
+                .sizeBytes(cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .build();
+    }
+
+    static String key(String title, Map<String, BigDecimal> slices, int width, int height, ChartFormat format) {
+        StringBuilder source = new StringBuilder()
+                .append(format).append(':')
+                .append(width).append('x').append(height).append(':')
+                .append(title);
+        for (Map.Entry<String, BigDecimal> slice : slices.entrySet()) {
+            // 10.0 e 10.00 desenham o mesmo gráfico
+            source.append('|').append(slice.getKey())
+                    .append('=').append(slice.getValue().stripTrailingZeros().toPlainString());
+        }
+        return DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private JFreeChart createPieChart(String title, Map<String, BigDecimal> slices) {
+        DefaultPieDataset dataset = new DefaultPieDataset();
+
+        for (Map.Entry<String, BigDecimal> slice : slices.entrySet()) {
+            dataset.setValue(slice.getKey(), slice.getValue().doubleValue());
+        }
+
+        JFreeChart chart = ChartFactory.createPieChart(
+                title,       // Título
+                dataset,     // Dataset
+                true,        // Legenda
+                false,       // Tooltips
+                false        // URLs
+        );
+
+        // Personalizar o gráfico
+        PiePlot plot = (PiePlot) chart.getPlot();
+        plot.setShadowPaint(null);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setOutlineVisible(false);
+
+        return chart;
+    }
+
+    private byte[] render(JFreeChart chart, int width, int height, ChartFormat format) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            if (format == ChartFormat.PNG) {
+                ChartUtils.writeChartAsPNG(output, chart, width, height);
+            } else {
+                writeVectorPage(chart, width, height, output);
+            }
+        } catch (IOException | DocumentException e) {
+            throw new IllegalStateException("Falha ao renderizar o gráfico", e);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * PDF de uma página do tamanho do gráfico, desenhado como vetor via PdfGraphics2D
+     */
+    private void writeVectorPage(JFreeChart chart, int width, int height, ByteArrayOutputStream output)
+            throws DocumentException {
+        Document document = new Document(new Rectangle(width, height), 0, 0, 0, 0);
+        PdfWriter writer = PdfWriter.getInstance(document, output);
+        document.open();
+
+        Graphics2D graphics = new PdfGraphics2D(writer.getDirectContent(), width, height);
+        try {
+            chart.draw(graphics, new Rectangle2D.Double(0, 0, width, height));
+        } finally {
+            graphics.dispose();
+        }
+
+        document.close();
+    }
+}
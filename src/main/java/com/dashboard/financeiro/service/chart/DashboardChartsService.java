@@ -0,0 +1,125 @@
+package com.dashboard.financeiro.service.chart;
+
+import com.dashboard.financeiro.config.executor.ExecutorConfig;
+import com.dashboard.financeiro.dto.chart.CategoryExpenseChartDto;
+import com.dashboard.financeiro.dto.chart.DashboardChartsDto;
+import com.dashboard.financeiro.dto.chart.GoalsProgressChartDto;
+import com.dashboard.financeiro.dto.chart.MonthlyTrendChartDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Monta o painel consolidado executando as seções de gráficos em paralelo.
+ * O usuário é resolvido uma única vez e cada seção tem seu próprio tempo limite
+ */
+@Service
+public class DashboardChartsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardChartsService.class);
+
+    @Autowired
+    private ChartDataService chartDataService;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.DASHBOARD_EXECUTOR)
+    private Executor dashboardExecutor;
+
+    @Value("${app.dashboard.section-timeout-ms:3000}")
+    private long sectionTimeoutMs;
+
+    public DashboardChartsDto getDashboardCharts(String username, LocalDate startDate, LocalDate endDate, Integer months) {
+        Long userId = chartDataService.findUserId(username);
+
+        // Dispara as três seções antes de aguardar qualquer uma delas
+        CompletableFuture<CategoryExpenseChartDto> expenses = runSection(
+                () -> chartDataService.getExpensesByCategory(userId, startDate, endDate));
+        CompletableFuture<MonthlyTrendChartDto> trend = runSection(
+                () -> chartDataService.getMonthlyTrend(userId, months));
+        CompletableFuture<GoalsProgressChartDto> goals = runSection(
+                () -> chartDataService.getGoalsProgress(userId));
+
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        return DashboardChartsDto.builder()
+                .expensesByCategory(awaitSection(expenses, DashboardChartsDto.EXPENSES_SECTION, errors))
+                .incomeExpenseTrend(awaitSection(trend, DashboardChartsDto.TREND_SECTION, errors))
+                .goalsProgress(awaitSection(goals, DashboardChartsDto.GOALS_SECTION, errors))
+                .partial(!errors.isEmpty())
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Envia a seção ao pool. O tempo limite conta desde o envio (inclusive na fila) e, ao expirar,
+     * a seção é cancelada: sai da fila ou tem a thread interrompida. Pool cheio falha na hora
+     */
+    private <T> CompletableFuture<T> runSection(Supplier<T> section) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<T> task = new FutureTask<>(section::get) {
+            @Override
+            protected void done() {
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (CancellationException | InterruptedException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+
+        try {
+            dashboardExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        result.orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Aguarda a seção; em caso de falha ou tempo excedido registra o motivo e retorna nulo
+     */
+    private <T> T awaitSection(CompletableFuture<T> future, String section, Map<String, String> errors) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+
+            if (cause instanceof TimeoutException) {
+                logger.warn("Seção {} do painel excedeu {} ms", section, sectionTimeoutMs);
+                errors.put(section, "Tempo limite excedido");
+            } else if (cause instanceof RejectedExecutionException) {
+                logger.warn("Seção {} do painel rejeitada: pool de seções cheio", section);
+                errors.put(section, "Serviço ocupado, tente novamente");
+            } else {
+                logger.error("Falha ao carregar a seção {} do painel", section, cause);
+                errors.put(section, "Falha ao carregar os dados");
+            }
+            return null;
+        }
+    }
+}
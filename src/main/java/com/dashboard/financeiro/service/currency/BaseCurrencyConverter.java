@@ -0,0 +1,90 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Fixa o valor em moeda base (BRL) de uma transação no momento da escrita, a partir da
+ * moeda e do valor originais. As leituras somam apenas amount, sem conversão
+ */
+@Service
+public class BaseCurrencyConverter {
+
+    private static final int RATE_SCALE = 10;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    public static boolean isBase(String currency) {
+        return currency == null || Transaction.BASE_CURRENCY.equals(currency);
+    }
+
+    /**
+     * Taxas atuais, para reaproveitar o mesmo snapshot em um lote de transações
+     */
+    public CrossRateTable currentRates() {
+        return exchangeRateService.getSnapshot().getCrossRates();
+    }
+
+    /**
+     * Converte com as taxas atuais; só consulta as taxas se a moeda não for a base
+     */
+    public void apply(Transaction transaction) {
+        apply(transaction, isBase(transaction.getOriginalCurrency()) ? null : currentRates());
+    }
+
+    /**
+     * Preenche moeda, valor original e taxa e calcula amount na moeda base.
+     * Sem valor original, amount é tomado como valor já em BRL
+     *
+     * @param crossRates taxas a usar; pode ser null quando a moeda é a base
+     * @throws IllegalArgumentException se a moeda não for suportada
+     */
+    public void apply(Transaction transaction, CrossRateTable crossRates) {
+        String currency = transaction.getOriginalCurrency() != null
+                ? transaction.getOriginalCurrency()
+                : Transaction.BASE_CURRENCY;
+        BigDecimal originalAmount = transaction.getOriginalAmount() != null
+                ? transaction.getOriginalAmount()
+                : transaction.getAmount();
+
+        transaction.setOriginalCurrency(currency);
+        transaction.setOriginalAmount(originalAmount);
+
+        if (isBase(currency)) {
+            transaction.setExchangeRate(BigDecimal.ONE);
+            transaction.setAmount(originalAmount);
+            return;
+        }
+
+        int from = crossRates.ordinal(currency);
+        int to = crossRates.ordinal(Transaction.BASE_CURRENCY);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Moeda não suportada");
+        }
+
+        transaction.setExchangeRate(crossRates.rate(from, to).setScale(RATE_SCALE, RoundingMode.HALF_UP));
+        transaction.setAmount(crossRates.convert(originalAmount, from, to));
+    }
+
+    /**
+     * Indica se a moeda ou o valor original mudaram; caso contrário a taxa fixada na criação é mantida
+     */
+    public static boolean originalChanged(Transaction current, Transaction details) {
+        String currency = details.getOriginalCurrency() != null
+                ? details.getOriginalCurrency()
+                : Transaction.BASE_CURRENCY;
+        BigDecimal originalAmount = details.getOriginalAmount() != null
+                ? details.getOriginalAmount()
+                : details.getAmount();
+
+        return !Objects.equals(current.getOriginalCurrency(), currency)
+                || current.getOriginalAmount() == null
+                || current.getOriginalAmount().compareTo(originalAmount) != 0;
+    }
+}
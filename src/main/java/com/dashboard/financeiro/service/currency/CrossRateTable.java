@@ -0,0 +1,129 @@
+package com.dashboard.financeiro.service.currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabela densa de taxas cruzadas (origem x destino), montada uma vez por snapshot de taxas.
+ * Cada moeda recebe um ordinal; converter passa a ser uma leitura na tabela e uma multiplicação
+ */
+public final class CrossRateTable {
+
+    private static final int AMOUNT_SCALE = 2;
+
+    private final String[] currencies;
+    private final Map<String, Integer> ordinals;
+    private final BigDecimal[] rates;
+
+    private CrossRateTable(String[] currencies, Map<String, Integer> ordinals, BigDecimal[] rates) {
+        this.currencies = currencies;
+        this.ordinals = ordinals;
+        this.rates = rates;
+    }
+
+    /**
+     * Monta a tabela a partir das taxas relativas à moeda base (a base vale 1).
+     * Cada taxa cruzada é calculada como destino / origem, como na conversão avulsa
+     */
+    public static CrossRateTable of(String base, Map<String, Double> baseRates) {
+        Map<String, Double> all = new HashMap<>(baseRates);
+        all.put(base, 1.0);
+        return of(all);
+    }
+
+    /**
+     * Monta a tabela a partir de taxas que já incluem a moeda base (ex: histórico diário).
+     * Taxas nulas, zero, negativas ou não finitas ficam fora da tabela: a moeda passa a ser
+     * não suportada, em vez de gerar taxas cruzadas infinitas ou NaN (que quebrariam a conversão)
+     */
+    public static CrossRateTable of(Map<String, Double> all) {
+        String[] currencies = all.entrySet().stream()
+                .filter(entry -> entry.getKey() != null && isValidRate(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+        Arrays.sort(currencies);
+
+        int size = currencies.length;
+        double[] values = new double[size];
+        Map<String, Integer> ordinals = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ordinals.put(currencies[i], i);
+            values[i] = all.get(currencies[i]);
+        }
+
+        BigDecimal[] rates = new BigDecimal[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                rates[from * size + to] = from == to
+                        ? BigDecimal.ONE
+                        : crossRate(values[from], values[to]);
+            }
+        }
+
+        return new CrossRateTable(currencies, Collections.unmodifiableMap(ordinals), rates);
+    }
+
+    /**
+     * Taxa utilizável em uma conversão: positiva e finita
+     */
+    static boolean isValidRate(Double rate) {
+        return rate != null && rate > 0 && !rate.isInfinite();
+    }
+
+    /**
+     * Taxa cruzada entre duas taxas relativas à mesma base (destino / origem)
+     */
+    static BigDecimal crossRate(double fromRate, double toRate) {
+        return BigDecimal.valueOf(toRate / fromRate);
+    }
+
+    /**
+     * Converte um valor por uma taxa, com 2 casas decimais
+     */
+    static BigDecimal convert(BigDecimal amount, BigDecimal rate) {
+        return amount.multiply(rate).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Ordinal da moeda na tabela
+     *
+     * @return o ordinal, ou -1 se a moeda não for suportada
+     */
+    public int ordinal(String currency) {
+        Integer ordinal = currency != null ? ordinals.get(currency) : null;
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public BigDecimal rate(int from, int to) {
+        return rates[from * currencies.length + to];
+    }
+
+    /**
+     * Taxa para converter de uma moeda para outra
+     *
+     * @return a taxa, ou null se alguma das moedas não for suportada
+     */
+    public BigDecimal rate(String from, String to) {
+        int fromOrdinal = ordinal(from);
+        int toOrdinal = ordinal(to);
+        if (fromOrdinal < 0 || toOrdinal < 0) {
+            return null;
+        }
+        return rate(fromOrdinal, toOrdinal);
+    }
+
+    /**
+     * Converte um valor entre duas moedas já resolvidas em ordinais, com 2 casas decimais
+     */
+    public BigDecimal convert(BigDecimal amount, int from, int to) {
+        return convert(amount, rate(from, to));
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+}
@@ -1,67 +1,61 @@
 package com.dashboard.financeiro.service.currency;
 
 import com.dashboard.financeiro.config.cache.CacheConfig;
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse;
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse.ConversionResult;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionRequest;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionResponse;
-import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
+import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.service.FinancialSummaryService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
 public class CurrencyService {
     
-    private static final Logger logger = LoggerFactory.getLogger(CurrencyService.class);
-    private static final String DEFAULT_CURRENCY = "BRL";
+    private static final String DEFAULT_CURRENCY = Transaction.BASE_CURRENCY;
     
-    @Value("${openexchangerates.api.url:https://openexchangerates.org/api}")
-    private String apiUrl;
+    @Autowired
+    private ExchangeRateService exchangeRateService;
     
-    @Value("${openexchangerates.app.id:YOUR_APP_ID}")
-    private String appId;
+    @Autowired
+    private FinancialSummaryService financialSummaryService;
     
-    private final WebClient webClient;
+    @Autowired
+    private ExchangeRateHistoryService exchangeRateHistoryService;
     
     @Autowired
-    private FinancialSummaryService financialSummaryService;
+    private UserDataVersionService userDataVersionService;
     
-    public CurrencyService() {
-        this.webClient = WebClient.builder().build();
-    }
+    @Autowired
+    private CacheManager cacheManager;
     
     /**
-     * Busca as taxas de câmbio atuais da API Open Exchange Rates
-     * Utiliza cache para evitar múltiplas chamadas à API
+     * Retorna as taxas de câmbio atuais, mantidas em memória pelo {@link ExchangeRateService}
+     * (nunca aguarda a API externa enquanto houver taxas válidas ou desatualizadas)
      */
-    @Cacheable(CacheConfig.EXCHANGE_RATES_CACHE)
-    public ExchangeRateResponse getExchangeRates() {
-        logger.info("Buscando taxas de câmbio da API Open Exchange Rates");
-        
-        return webClient.get()
-                .uri(apiUrl + "/latest.json?app_id={appId}", appId)
-                .retrieve()
-                .bodyToMono(ExchangeRateResponse.class)
-                .block();
+    public ExchangeRateSnapshot getExchangeRates() {
+        return exchangeRateService.getSnapshot();
     }
     
     /**
-     * Converte um valor de uma moeda para outra
+     * Converte um valor de uma moeda para outra, com as taxas atuais
+     * ou, se a requisição informar uma data, com as taxas históricas da data
      */
     public CurrencyConversionResponse convertCurrency(CurrencyConversionRequest request) {
         if (request.getFromCurrency().equals(request.getToCurrency())) {
@@ -76,22 +70,25 @@ public class CurrencyService {
                     .build();
         }
         
+        if (request.getDate() != null) {
+            return convertAtDate(request);
+        }
+        
         // Buscar as taxas de câmbio
-        ExchangeRateResponse exchangeRates = getExchangeRates();
+        ExchangeRateSnapshot exchangeRates = getExchangeRates();
         
-        // Extrair as taxas para as moedas de origem e destino
-        Double fromRate = request.getFromCurrency().equals("USD") ? 1.0 : exchangeRates.getRates().get(request.getFromCurrency());
-        Double toRate = request.getToCurrency().equals("USD") ? 1.0 : exchangeRates.getRates().get(request.getToCurrency());
+        // Resolver as moedas na tabela de taxas cruzadas do snapshot
+        CrossRateTable crossRates = exchangeRates.getCrossRates();
+        int from = crossRates.ordinal(request.getFromCurrency());
+        int to = crossRates.ordinal(request.getToCurrency());
         
-        if (fromRate == null || toRate == null) {
+        if (from < 0 || to < 0) {
             throw new IllegalArgumentException("Moeda não suportada");
         }
         
-        // Calcular a taxa de câmbio entre as moedas
-        BigDecimal exchangeRate = BigDecimal.valueOf(toRate / fromRate);
-        
-        // Converter o valor
-        BigDecimal convertedAmount = request.getAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+        // Taxa pré-calculada e uma única multiplicação
+        BigDecimal exchangeRate = crossRates.rate(from, to);
+        BigDecimal convertedAmount = crossRates.convert(request.getAmount(), from, to);
         
         // Criar a resposta
         return CurrencyConversionResponse.builder()
@@ -101,45 +98,181 @@ public class CurrencyService {
                 .targetCurrency(request.getToCurrency())
                 .exchangeRate(exchangeRate)
                 .conversionDate(LocalDateTime.now())
+                .ratesUpdatedAt(LocalDateTime.ofInstant(exchangeRates.getFetchedAt(), ZoneId.systemDefault()))
+                .ratesStale(exchangeRates.isStale())
+                .build();
+    }
+    
+    private CurrencyConversionResponse convertAtDate(CurrencyConversionRequest request) {
+        CrossRateTable crossRates = exchangeRateHistoryService.crossRatesOn(request.getDate())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Taxa de câmbio indisponível para a data " + request.getDate()));
+        
+        int from = crossRates.ordinal(request.getFromCurrency());
+        int to = crossRates.ordinal(request.getToCurrency());
+        
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Moeda não suportada");
+        }
+        
+        return CurrencyConversionResponse.builder()
+                .originalAmount(request.getAmount())
+                .originalCurrency(request.getFromCurrency())
+                .convertedAmount(crossRates.convert(request.getAmount(), from, to))
+                .targetCurrency(request.getToCurrency())
+                .exchangeRate(crossRates.rate(from, to))
+                .conversionDate(LocalDateTime.now())
+                .rateDate(request.getDate())
                 .build();
     }
     
     /**
-     * Converte um resumo financeiro para outra moeda
+     * Converte um lote de valores usando um único snapshot de taxas para todas as linhas.
+     * Linhas com data usam as taxas históricas da data, carregadas para todas as datas do lote
+     * em uma única consulta e aplicadas direto (sem montar uma tabela de taxas cruzadas por data).
+     * Linhas inválidas recebem um erro próprio sem interromper as demais
      */
-    public FinancialSummaryResponse convertFinancialSummary(String username, LocalDate startDate, LocalDate endDate, String targetCurrency) {
-        // Obter o resumo financeiro original
-        FinancialSummaryResponse originalSummary = financialSummaryService.getFinancialSummary(username, startDate, endDate);
+    public CurrencyBatchConversionResponse convertBatch(List<CurrencyConversionRequest> requests) {
+        ExchangeRateSnapshot exchangeRates = getExchangeRates();
+        CrossRateTable crossRates = exchangeRates.getCrossRates();
+        
+        Set<LocalDate> dates = new HashSet<>();
+        for (CurrencyConversionRequest request : requests) {
+            if (request != null && request.getAmount() != null && request.getDate() != null) {
+                dates.add(request.getDate());
+            }
+        }
+        Map<LocalDate, Map<String, Double>> historicalRates = dates.isEmpty()
+                ? Map.of()
+                : exchangeRateHistoryService.ratesOn(dates);
         
+        List<ConversionResult> results = new ArrayList<>(requests.size());
+        int converted = 0;
+        
+        for (int index = 0; index < requests.size(); index++) {
+            CurrencyConversionRequest request = requests.get(index);
+            
+            if (request == null || request.getAmount() == null) {
+                results.add(ConversionResult.builder().index(index).error("Valor não informado").build());
+                continue;
+            }
+            
+            BigDecimal rate;
+            if (request.getDate() != null) {
+                Map<String, Double> atDate = historicalRates.get(request.getDate());
+                if (atDate == null) {
+                    results.add(ConversionResult.builder().index(index)
+                            .error("Taxa de câmbio indisponível para a data").build());
+                    continue;
+                }
+                rate = historicalRate(atDate, request.getFromCurrency(), request.getToCurrency());
+            } else {
+                rate = crossRates.rate(request.getFromCurrency(), request.getToCurrency());
+            }
+            
+            if (rate == null) {
+                results.add(ConversionResult.builder().index(index).error("Moeda não suportada").build());
+                continue;
+            }
+            
+            results.add(ConversionResult.builder()
+                    .index(index)
+                    .convertedAmount(CrossRateTable.convert(request.getAmount(), rate))
+                    .exchangeRate(rate)
+                    .build());
+            converted++;
+        }
+        
+        return CurrencyBatchConversionResponse.builder()
+                .ratesBase(exchangeRates.getBase())
+                .ratesUpdatedAt(LocalDateTime.ofInstant(exchangeRates.getFetchedAt(), ZoneId.systemDefault()))
+                .ratesStale(exchangeRates.isStale())
+                .total(requests.size())
+                .converted(converted)
+                .failed(requests.size() - converted)
+                .results(results)
+                .build();
+    }
+    
+    /**
+     * Taxa entre duas moedas a partir das taxas de um dia do histórico
+     *
+     * @return a taxa, ou null se alguma das moedas não tiver taxa válida no dia
+     */
+    private BigDecimal historicalRate(Map<String, Double> rates, String fromCurrency, String toCurrency) {
+        Double fromRate = fromCurrency != null ? rates.get(fromCurrency) : null;
+        Double toRate = toCurrency != null ? rates.get(toCurrency) : null;
+        if (!CrossRateTable.isValidRate(fromRate) || !CrossRateTable.isValidRate(toRate)) {
+            return null;
+        }
+        return fromCurrency.equals(toCurrency) ? BigDecimal.ONE : CrossRateTable.crossRate(fromRate, toRate);
+    }
+    
+    /**
+     * Converte um resumo financeiro para outra moeda com as taxas atuais
+     */
+    public FinancialSummaryResponse convertFinancialSummary(String username, LocalDate startDate, LocalDate endDate, String targetCurrency) {
+        return convertFinancialSummary(username, startDate, endDate, targetCurrency, false);
+    }
+    
+    /**
+     * Converte um resumo financeiro para outra moeda. Com historicalRates, cada transação
+     * é convertida com a taxa do seu dia (dias sem histórico usam a taxa atual)
+     */
+    public FinancialSummaryResponse convertFinancialSummary(String username, LocalDate startDate, LocalDate endDate,
+                                                            String targetCurrency, boolean historicalRates) {
         // Se a moeda alvo for a mesma da moeda padrão (BRL), retornar o resumo original
         if (DEFAULT_CURRENCY.equals(targetCurrency)) {
-            return originalSummary;
+            return financialSummaryService.getFinancialSummary(username, startDate, endDate);
         }
         
         // Buscar as taxas de câmbio
-        ExchangeRateResponse exchangeRates = getExchangeRates();
+        ExchangeRateSnapshot exchangeRates = getExchangeRates();
         
-        // Calcular a taxa de conversão de BRL para a moeda alvo
-        Double brlRate = exchangeRates.getRates().get(DEFAULT_CURRENCY);
-        Double targetRate = targetCurrency.equals("USD") ? 1.0 : exchangeRates.getRates().get(targetCurrency);
+        // Resolver BRL e a moeda alvo uma única vez; cada valor é uma leitura na tabela e uma multiplicação
+        CrossRateTable crossRates = exchangeRates.getCrossRates();
+        int from = crossRates.ordinal(DEFAULT_CURRENCY);
+        int to = crossRates.ordinal(targetCurrency);
         
-        if (brlRate == null || targetRate == null) {
+        if (from < 0 || to < 0) {
             throw new IllegalArgumentException("Moeda não suportada");
         }
         
-        BigDecimal exchangeRate = BigDecimal.valueOf(targetRate / brlRate);
+        if (historicalRates) {
+            FinancialSummaryResponse summary = financialSummaryService.getSummaryAtTransactionDates(
+                    username, startDate, endDate, DEFAULT_CURRENCY, targetCurrency, crossRates.rate(from, to));
+            summary.setExchangeRatesStale(exchangeRates.isStale());
+            return summary;
+        }
+        
+        // Visão convertida memorizada por (versão dos dados, período, moeda, snapshot de taxas):
+        // trocar de moeda sobre dados e taxas inalterados não consulta o banco nem refaz a conversão
+        String key = userDataVersionService.keyForUser(username, startDate, endDate, targetCurrency,
+                exchangeRates.getFetchedAt().toEpochMilli(), exchangeRates.isStale());
+        
+        return cacheManager.getCache(CacheConfig.CONVERTED_SUMMARY_CACHE).get(key, () ->
+                convertSummary(financialSummaryService.getFinancialSummary(username, startDate, endDate),
+                        crossRates, from, to, targetCurrency, exchangeRates.isStale()));
+    }
+    
+    /**
+     * Converte um resumo em BRL (normalmente já em cache) sem novas consultas
+     */
+    private FinancialSummaryResponse convertSummary(FinancialSummaryResponse originalSummary, CrossRateTable crossRates,
+                                                    int from, int to, String targetCurrency, boolean ratesStale) {
+        UnaryOperator<BigDecimal> convert = amount -> crossRates.convert(amount, from, to);
         
         // Converter os valores no resumo financeiro
-        BigDecimal convertedCurrentBalance = originalSummary.getCurrentBalance().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal convertedTotalIncome = originalSummary.getTotalIncome().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal convertedTotalExpense = originalSummary.getTotalExpense().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal convertedCurrentBalance = convert.apply(originalSummary.getCurrentBalance());
+        BigDecimal convertedTotalIncome = convert.apply(originalSummary.getTotalIncome());
+        BigDecimal convertedTotalExpense = convert.apply(originalSummary.getTotalExpense());
         
         // Converter valores por categoria de despesa
         List<FinancialSummaryResponse.CategorySummaryDto> convertedExpensesByCategory = new ArrayList<>();
         if (originalSummary.getExpensesByCategory() != null) {
             convertedExpensesByCategory = originalSummary.getExpensesByCategory().stream()
                     .map(category -> {
-                        BigDecimal convertedAmount = category.getAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+                        BigDecimal convertedAmount = convert.apply(category.getAmount());
                         return new FinancialSummaryResponse.CategorySummaryDto(
                                 category.getCategoryId(),
                                 category.getCategoryName(),
@@ -155,7 +288,7 @@ public class CurrencyService {
         if (originalSummary.getIncomesByCategory() != null) {
             convertedIncomesByCategory = originalSummary.getIncomesByCategory().stream()
                     .map(category -> {
-                        BigDecimal convertedAmount = category.getAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+                        BigDecimal convertedAmount = convert.apply(category.getAmount());
                         return new FinancialSummaryResponse.CategorySummaryDto(
                                 category.getCategoryId(),
                                 category.getCategoryName(),
@@ -171,8 +304,8 @@ public class CurrencyService {
         if (originalSummary.getAchievedGoals() != null) {
             convertedGoals = originalSummary.getAchievedGoals().stream()
                     .map(goal -> {
-                        BigDecimal convertedTargetAmount = goal.getTargetAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
-                        BigDecimal convertedCurrentAmount = goal.getCurrentAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
+                        BigDecimal convertedTargetAmount = convert.apply(goal.getTargetAmount());
+                        BigDecimal convertedCurrentAmount = convert.apply(goal.getCurrentAmount());
                         return new FinancialSummaryResponse.FinancialGoalDto(
                                 goal.getId(),
                                 goal.getName(),
@@ -195,6 +328,7 @@ public class CurrencyService {
                 .incomesByCategory(convertedIncomesByCategory)
                 .achievedGoals(convertedGoals)
                 .currency(targetCurrency)
+                .exchangeRatesStale(ratesStale)
                 .build();
     }
     
@@ -202,7 +336,7 @@ public class CurrencyService {
      * Retorna a lista de moedas disponíveis para conversão
      */
     public Map<String, String> getAvailableCurrencies() {
-        ExchangeRateResponse exchangeRates = getExchangeRates();
+        ExchangeRateSnapshot exchangeRates = getExchangeRates();
         return exchangeRates.getRates().keySet().stream()
                 .collect(Collectors.toMap(
                         currency -> currency,    // Código da moeda
@@ -0,0 +1,172 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.dto.admin.ExchangeRateBackfillRequest.DailyRates;
+import com.dashboard.financeiro.repository.ExchangeRateHistoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Histórico diário de taxas de câmbio: gravado a partir das taxas atuais por um agendamento
+ * e preenchido em lote por importação. Permite converter valores com a taxa da data da transação
+ */
+@Service
+public class ExchangeRateHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateHistoryService.class);
+    private static final String DEFAULT_BASE = "USD";
+
+    @Autowired
+    private ExchangeRateHistoryRepository exchangeRateHistoryRepository;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Grava as taxas atuais como as do dia em que foram obtidas. Cada execução substitui
+     * as do mesmo dia, então o histórico guarda a última taxa obtida no dia
+     */
+    @Scheduled(cron = "${app.exchange-rates.history.cron:0 0 * * * *}")
+    @Transactional
+    public void snapshotCurrentRates() {
+        ExchangeRateSnapshot snapshot;
+        try {
+            snapshot = exchangeRateService.getSnapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Histórico de câmbio não gravado: {}", e.getMessage());
+            return;
+        }
+
+        if (snapshot.isStale()) {
+            logger.warn("Histórico de câmbio não gravado: taxas desatualizadas");
+            return;
+        }
+
+        LocalDate day = LocalDate.ofInstant(snapshot.getFetchedAt(), ZoneId.systemDefault());
+        Map<String, Number> rates = new HashMap<>(snapshot.getRates());
+        rates.put(snapshot.getBase(), 1);
+        saveDay(day, rates);
+    }
+
+    /**
+     * Importa vários dias de taxas, um comando por dia, substituindo os existentes.
+     * O histórico guarda taxas relativas ao USD: dias com outra base são convertidos para USD
+     *
+     * @return quantidade de taxas gravadas
+     * @throws IllegalArgumentException se um dia com outra base não trouxer a taxa do USD
+     */
+    @Transactional
+    public int importDays(List<DailyRates> days) {
+        int rows = 0;
+        for (DailyRates day : days) {
+            rows += saveDay(day.getDate(), toDefaultBase(day));
+        }
+        logger.info("Histórico de câmbio importado: {} dias, {} taxas", days.size(), rows);
+        return rows;
+    }
+
+    /**
+     * Tabela de taxas cruzadas válida na data (taxas do último dia com histórico até a data)
+     *
+     * @return vazio se não houver histórico para a data
+     */
+    public Optional<CrossRateTable> crossRatesOn(LocalDate date) {
+        List<Object[]> rows = exchangeRateHistoryRepository.findRatesOn(date);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, Double> rates = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            rates.put((String) row[0], ((Number) row[1]).doubleValue());
+        }
+        return Optional.of(CrossRateTable.of(rates));
+    }
+
+    /**
+     * Taxas de várias datas com uma única consulta, pela mesma regra de {@link #crossRatesOn}.
+     * Devolve as taxas relativas ao USD, sem montar tabelas de taxas cruzadas; datas que caem
+     * no mesmo dia de histórico compartilham o mesmo mapa
+     *
+     * @return taxas por data informada; datas sem histórico ficam fora do mapa
+     */
+    public Map<LocalDate, Map<String, Double>> ratesOn(Collection<LocalDate> dates) {
+        if (dates.isEmpty()) {
+            return Map.of();
+        }
+
+        TreeMap<LocalDate, Map<String, Double>> days = new TreeMap<>();
+        for (Object[] row : exchangeRateHistoryRepository.findRatesOnDates(dates)) {
+            days.computeIfAbsent(toLocalDate(row[0]), day -> new HashMap<>())
+                    .put((String) row[1], ((Number) row[2]).doubleValue());
+        }
+
+        Map<LocalDate, Map<String, Double>> rates = new HashMap<>(dates.size() * 2);
+        for (LocalDate date : dates) {
+            Map.Entry<LocalDate, Map<String, Double>> day = days.floorEntry(date);
+            if (day != null && !day.getKey().isBefore(date.minusDays(ExchangeRateHistoryRepository.LOOKBACK_DAYS))) {
+                rates.put(date, day.getValue());
+            }
+        }
+        return rates;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * Taxas do dia relativas ao USD. Com base B, a taxa de X em USD é taxa(X) / taxa(USD)
+     */
+    private Map<String, Number> toDefaultBase(DailyRates day) {
+        String base = day.getBase() != null ? day.getBase().toUpperCase() : DEFAULT_BASE;
+        Map<String, Number> rates = new HashMap<>(day.getRates());
+        if (DEFAULT_BASE.equals(base)) {
+            rates.put(DEFAULT_BASE, 1);
+            return rates;
+        }
+
+        BigDecimal usdRate = day.getRates().get(DEFAULT_BASE);
+        if (usdRate == null || usdRate.signum() <= 0) {
+            throw new IllegalArgumentException("Taxas de " + day.getDate() + " com base " + base
+                    + " precisam incluir a taxa do " + DEFAULT_BASE);
+        }
+
+        for (Map.Entry<String, BigDecimal> rate : day.getRates().entrySet()) {
+            if (rate.getValue() != null) {
+                rates.put(rate.getKey(), rate.getValue().divide(usdRate, MathContext.DECIMAL64));
+            }
+        }
+        rates.put(base, BigDecimal.ONE.divide(usdRate, MathContext.DECIMAL64));
+        rates.put(DEFAULT_BASE, 1);
+        return rates;
+    }
+
+    private int saveDay(LocalDate date, Map<String, Number> rates) {
+        try {
+            return exchangeRateHistoryRepository.upsertDay(date, objectMapper.writeValueAsString(rates));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar as taxas de " + date, e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.config.executor.ExecutorConfig;
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+import com.dashboard.financeiro.service.currency.provider.ExchangeRateProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Taxas de câmbio em memória com validade (TTL), atualização antecipada em segundo plano
+ * e uma única busca em andamento por vez, compartilhada por todos que precisarem dela.
+ * Quando a atualização demora, serve as taxas anteriores marcadas como desatualizadas.
+ * A última resposta válida fica gravada em disco e é usada na inicialização
+ */
+@Service
+public class ExchangeRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
+
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.EXCHANGE_RATE_EXECUTOR)
+    private Executor exchangeRateExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.exchange-rates.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${app.exchange-rates.refresh-ahead-seconds:300}")
+    private long refreshAheadSeconds;
+
+    @Value("${app.exchange-rates.stale-wait-ms:500}")
+    private long staleWaitMs;
+
+    @Value("${app.exchange-rates.fetch-timeout-ms:5000}")
+    private long fetchTimeoutMs;
+
+    @Value("${app.exchange-rates.snapshot-path:data/exchange-rates.json}")
+    private String snapshotPath;
+
+    private final AtomicReference<ExchangeRateSnapshot> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<ExchangeRateSnapshot>> inFlight = new AtomicReference<>();
+
+    /**
+     * Retorna as taxas atuais. Dentro da validade não há espera; perto do vencimento
+     * dispara a atualização em segundo plano; vencidas, espera até stale-wait-ms
+     * pela atualização e, se ela não vier, devolve as anteriores com isStale()
+     */
+    public ExchangeRateSnapshot getSnapshot() {
+        ExchangeRateSnapshot snapshot = current.get();
+
+        if (snapshot == null) {
+            // Sem taxas em memória nem em disco: todos aguardam a mesma busca
+            return await(refresh(), fetchTimeoutMs)
+                    .orElseThrow(() -> new IllegalStateException("Taxas de câmbio indisponíveis"));
+        }
+
+        Duration age = snapshot.age(Instant.now());
+        if (age.compareTo(ttl()) < 0) {
+            if (age.compareTo(refreshAt()) >= 0) {
+                refresh();
+            }
+            return snapshot;
+        }
+
+        return await(refresh(), staleWaitMs).orElseGet(snapshot::asStale);
+    }
+
+    /**
+     * Verificação periódica: antecipa a atualização antes do vencimento,
+     * para que as requisições raramente encontrem taxas vencidas
+     */
+    @Scheduled(fixedDelayString = "${app.exchange-rates.refresh-check-ms:60000}")
+    public void refreshAhead() {
+        ExchangeRateSnapshot snapshot = current.get();
+        if (snapshot == null || snapshot.age(Instant.now()).compareTo(refreshAt()) >= 0) {
+            refresh();
+        }
+    }
+
+    /**
+     * Carrega a última resposta válida gravada em disco, mesmo que vencida:
+     * é melhor servir taxas desatualizadas do que falhar enquanto a API não responde
+     */
+    @PostConstruct
+    public void loadLastKnownGood() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isReadable(path)) {
+            return;
+        }
+
+        try {
+            ExchangeRateResponse saved = objectMapper.readValue(path.toFile(), ExchangeRateResponse.class);
+            ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.from(saved, Instant.ofEpochSecond(saved.getTimestamp()));
+            current.compareAndSet(null, snapshot);
+            logger.info("Taxas de câmbio carregadas de {} (obtidas em {})", path, snapshot.getFetchedAt());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Não foi possível carregar as taxas de câmbio de {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Inicia uma busca ou reaproveita a que já está em andamento
+     */
+    CompletableFuture<ExchangeRateSnapshot> refresh() {
+        while (true) {
+            CompletableFuture<ExchangeRateSnapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+
+            CompletableFuture<ExchangeRateSnapshot> created = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, created)) {
+                try {
+                    exchangeRateExecutor.execute(() -> fetch(created));
+                } catch (RejectedExecutionException e) {
+                    inFlight.compareAndSet(created, null);
+                    created.completeExceptionally(e);
+                }
+                return created;
+            }
+        }
+    }
+
+    private void fetch(CompletableFuture<ExchangeRateSnapshot> target) {
+        ExchangeRateSnapshot snapshot = null;
+        Throwable failure = null;
+        try {
+            snapshot = ExchangeRateSnapshot.from(exchangeRateProvider.fetchLatest(), Instant.now());
+            current.set(snapshot);
+            writeLastKnownGood(snapshot);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao atualizar as taxas de câmbio via {}: {}", exchangeRateProvider.getName(), e.getMessage());
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Libera a próxima busca em qualquer saída, inclusive um Error: sem isto nenhuma
+            // atualização seria iniciada de novo e todos esperariam por esta busca
+            inFlight.compareAndSet(target, null);
+            if (failure == null) {
+                target.complete(snapshot);
+            } else {
+                target.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private Optional<ExchangeRateSnapshot> await(CompletableFuture<ExchangeRateSnapshot> future, long timeoutMs) {
+        try {
+            return Optional.of(future.get(timeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Grava em arquivo temporário e move, para nunca deixar um arquivo pela metade
+     */
+    private void writeLastKnownGood(ExchangeRateSnapshot snapshot) {
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), "exchange-rates", ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot.toResponse());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Não foi possível gravar as taxas de câmbio em {}: {}", path, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+            // Arquivo temporário órfão não afeta o funcionamento
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    private Duration refreshAt() {
+        return ttl().minusSeconds(refreshAheadSeconds);
+    }
+}
@@ -0,0 +1,104 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conjunto imutável de taxas de câmbio obtido em um instante.
+ * Uma cópia marcada como desatualizada é servida quando a atualização não chega a tempo
+ */
+public final class ExchangeRateSnapshot {
+
+    private static final String DEFAULT_BASE = "USD";
+
+    private final String base;
+    private final Map<String, Double> rates;
+    private final Instant fetchedAt;
+    private final boolean stale;
+    private final CrossRateTable crossRates;
+
+    public ExchangeRateSnapshot(String base, Map<String, Double> rates, Instant fetchedAt) {
+        this(base, Collections.unmodifiableMap(new HashMap<>(rates)), fetchedAt, false,
+                CrossRateTable.of(base, rates));
+    }
+
+    private ExchangeRateSnapshot(String base, Map<String, Double> rates, Instant fetchedAt, boolean stale,
+                                 CrossRateTable crossRates) {
+        this.base = base;
+        this.rates = rates;
+        this.fetchedAt = fetchedAt;
+        this.stale = stale;
+        this.crossRates = crossRates;
+    }
+
+    /**
+     * Cria o snapshot a partir da resposta do provedor, rejeitando respostas sem taxas
+     */
+    public static ExchangeRateSnapshot from(ExchangeRateResponse response, Instant fetchedAt) {
+        if (response == null || response.getRates() == null || response.getRates().isEmpty()) {
+            throw new IllegalStateException("Resposta de taxas de câmbio vazia");
+        }
+
+        String base = response.getBase() != null ? response.getBase() : DEFAULT_BASE;
+        return new ExchangeRateSnapshot(base, response.getRates(), fetchedAt);
+    }
+
+    /**
+     * Converte para o formato da Open Exchange Rates, usando o instante da busca como timestamp
+     */
+    public ExchangeRateResponse toResponse() {
+        ExchangeRateResponse response = new ExchangeRateResponse();
+        response.setBase(base);
+        response.setTimestamp(fetchedAt.getEpochSecond());
+        response.setRates(new HashMap<>(rates));
+        return response;
+    }
+
+    public ExchangeRateSnapshot asStale() {
+        return stale ? this : new ExchangeRateSnapshot(base, rates, fetchedAt, true, crossRates);
+    }
+
+    public Duration age(Instant now) {
+        return Duration.between(fetchedAt, now);
+    }
+
+    /**
+     * Taxa da moeda em relação à base; a própria base vale 1
+     *
+     * @return a taxa, ou null se a moeda não for suportada
+     */
+    public Double getRate(String currency) {
+        if (base.equals(currency)) {
+            return 1.0;
+        }
+        return rates.get(currency);
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    public Map<String, Double> getRates() {
+        return rates;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * Taxas cruzadas pré-calculadas deste snapshot
+     */
+    public CrossRateTable getCrossRates() {
+        return crossRates;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+}
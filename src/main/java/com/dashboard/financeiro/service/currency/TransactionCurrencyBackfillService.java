@@ -0,0 +1,85 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Preenche moeda e valor originais das transações gravadas antes da moeda original.
+ * Percorre a tabela por blocos de ids, cada bloco em sua própria transação do banco,
+ * para não segurar bloqueios nem gerar uma transação gigante em tabelas grandes
+ */
+@Service
+public class TransactionCurrencyBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionCurrencyBackfillService.class);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.transactions.currency-backfill.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.transactions.currency-backfill.on-startup:true}")
+    private boolean backfillOnStartup;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Executa o preenchimento completo
+     *
+     * @return quantidade de transações atualizadas
+     * @throws IllegalStateException se já houver um preenchimento em andamento
+     */
+    public int backfill() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Preenchimento de moeda já em andamento");
+        }
+
+        try {
+            TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+            long afterId = 0;
+            int updated = 0;
+
+            while (true) {
+                Long lastId = transactionRepository.findChunkEndId(afterId, chunkSize);
+                if (lastId == null) {
+                    break;
+                }
+
+                long from = afterId;
+                Integer rows = chunkTransaction.execute(status ->
+                        transactionRepository.backfillBaseCurrency(from, lastId));
+                updated += rows != null ? rows : 0;
+                afterId = lastId;
+            }
+
+            logger.info("Moeda original preenchida em {} transações", updated);
+            return updated;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Na inicialização, preenche as transações antigas se ainda houver alguma sem moeda original
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfNeeded() {
+        if (backfillOnStartup && transactionRepository.existsByOriginalCurrencyIsNull()) {
+            backfill();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.dashboard.financeiro.service.currency.provider;
+
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+
+/**
+ * Fonte das taxas de câmbio. A implementação é escolhida por app.exchange-rates.provider
+ * e chamada apenas pelo {@link com.dashboard.financeiro.service.currency.ExchangeRateService},
+ * fora das threads de requisição
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * Busca as taxas mais recentes
+     *
+     * @return taxas relativas à moeda base da resposta
+     */
+    ExchangeRateResponse fetchLatest();
+
+    /**
+     * Nome do provedor, usado nos logs
+     */
+    String getName();
+}
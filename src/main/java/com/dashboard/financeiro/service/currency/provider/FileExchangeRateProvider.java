@@ -0,0 +1,40 @@
+package com.dashboard.financeiro.service.currency.provider;
+
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Taxas de câmbio lidas de um arquivo JSON no formato da Open Exchange Rates.
+ * Substitui a API externa em testes e ambientes sem acesso à internet
+ */
+@Component
+@ConditionalOnProperty(name = "app.exchange-rates.provider", havingValue = "file")
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    @Value("${app.exchange-rates.file.path:exchange-rates.json}")
+    private String path;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public ExchangeRateResponse fetchLatest() {
+        try {
+            return objectMapper.readValue(new File(path), ExchangeRateResponse.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível ler as taxas de câmbio de " + path, e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + path;
+    }
+}
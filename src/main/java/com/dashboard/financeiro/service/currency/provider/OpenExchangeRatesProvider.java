@@ -0,0 +1,52 @@
+package com.dashboard.financeiro.service.currency.provider;
+
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * Taxas de câmbio da API Open Exchange Rates (provedor padrão)
+ */
+@Component
+@ConditionalOnProperty(name = "app.exchange-rates.provider", havingValue = "openexchangerates", matchIfMissing = true)
+public class OpenExchangeRatesProvider implements ExchangeRateProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenExchangeRatesProvider.class);
+
+    @Value("${openexchangerates.api.url:https://openexchangerates.org/api}")
+    private String apiUrl;
+
+    @Value("${openexchangerates.app.id:YOUR_APP_ID}")
+    private String appId;
+
+    @Value("${app.exchange-rates.fetch-timeout-ms:5000}")
+    private long fetchTimeoutMs;
+
+    private final WebClient webClient;
+
+    public OpenExchangeRatesProvider() {
+        this.webClient = WebClient.builder().build();
+    }
+
+    @Override
+    public ExchangeRateResponse fetchLatest() {
+        logger.info("Buscando taxas de câmbio da API Open Exchange Rates");
+
+        return webClient.get()
+                .uri(apiUrl + "/latest.json?app_id={appId}", appId)
+                .retrieve()
+                .bodyToMono(ExchangeRateResponse.class)
+                .block(Duration.ofMillis(fetchTimeoutMs));
+    }
+
+    @Override
+    public String getName() {
+        return "openexchangerates";
+    }
+}
@@ -0,0 +1,289 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.config.executor.ExecutorConfig;
+import com.dashboard.financeiro.repository.TransactionRepository;
+import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.report.ReportCacheService.ReportRenderer;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relatório anual montado a partir de seções mensais geradas em paralelo em um pool próprio
+ * e unidas com PdfSmartCopy (fontes e recursos repetidos entre as seções são gravados uma vez).
+ * Cada mês encerrado fica em cache pela impressão digital das suas transações: uma alteração
+ * em dezembro refaz só a seção de dezembro. Usuários com poucas transações no ano recebem
+ * o relatório em documento único, como os demais períodos
+ */
+@Service
+public class AnnualReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnualReportService.class);
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.ANNUAL_SECTION_EXECUTOR)
+    private Executor annualSectionExecutor;
+
+    @Value("${app.reports.annual.sectioned-min-transactions:2000}")
+    private long sectionedMinTransactions;
+
+    /**
+     * Escreve o PDF do ano civil no stream, sem fechá-lo. O arquivo completo fica em cache
+     * pelo {@link ReportFileService}, como os demais períodos
+     */
+    void writeAnnualReport(String username, LocalDate startDate, LocalDate endDate,
+                           OutputStream outputStream) throws IOException {
+        Long userId = userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        // Meses com transações, em ordem, com quantidade e impressão digital
+        Map<YearMonth, Object[]> months = new TreeMap<>();
+        long transactions = 0;
+        for (Object[] row : transactionRepository.fingerprintMonths(userId, startDate, endDate)) {
+            months.put(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()), row);
+            transactions += ((Number) row[2]).longValue();
+        }
+
+        if (transactions < sectionedMinTransactions) {
+            financialReportService.writeFinancialReport(username, startDate, endDate, outputStream);
+            return;
+        }
+
+        List<Section> sections = new ArrayList<>();
+        sections.add(new Section(uncached(out -> financialReportService.writeAnnualCover(
+                username, startDate, endDate, out))));
+        for (Map.Entry<YearMonth, Object[]> month : months.entrySet()) {
+            sections.add(new Section(monthSection(username, month.getKey(), (String) month.getValue()[3])));
+        }
+
+        try {
+            for (Section section : sections) {
+                try {
+                    annualSectionExecutor.execute(section);
+                } catch (RejectedExecutionException e) {
+                    // Pool de seções cheio: esta seção fica para a própria thread, no laço abaixo
+                    logger.debug("Seção do relatório anual de {} gerada sem o pool: fila cheia", username);
+                }
+            }
+
+            // A thread que pediu o relatório também gera as seções ainda não iniciadas, então
+            // nunca espera por uma seção parada na fila
+            for (Section section : sections) {
+                section.run();
+            }
+
+            merge(sections, outputStream);
+        } finally {
+            sections.forEach(Section::close);
+        }
+    }
+
+    /**
+     * Meses encerrados vêm do cache pela impressão digital; o mês corrente é sempre gerado
+     */
+    private SectionRenderer monthSection(String username, YearMonth month, String fingerprint) {
+        LocalDate monthStart = month.atDay(1);
+        LocalDate monthEnd = month.atEndOfMonth();
+        ReportRenderer renderer = out -> financialReportService.writeFinancialReport(username, monthStart, monthEnd, out);
+
+        if (!monthEnd.isBefore(LocalDate.now())) {
+            return uncached(renderer);
+        }
+
+        String key = ReportCacheService.hash(username + ":" + monthStart + ":" + monthEnd
+                + ":t" + FinancialReportService.TEMPLATE_VERSION + ":f" + fingerprint + ":section");
+        return () -> new SectionFile(reportCacheService.getOrCreate(key, renderer).getFile(), false);
+    }
+
+    /**
+     * Capa e mês corrente: gravados em arquivo temporário, removido após a união
+     */
+    private SectionRenderer uncached(ReportRenderer renderer) {
+        return () -> {
+            Path temp = Files.createTempFile("annual-section-", ".pdf");
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.write(output);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return new SectionFile(temp, true);
+        };
+    }
+
+    /**
+     * As seções são copiadas uma de cada vez, na ordem: cada arquivo é aberto com leitura parcial
+     * (só as estruturas de páginas em memória; o conteúdo é lido do disco quando copiado), liberado
+     * e fechado antes do próximo. A memória não cresce com o número de transações do ano
+     */
+    private void merge(List<Section> sections, OutputStream outputStream) throws IOException {
+        Document document = new Document();
+        try {
+            PdfSmartCopy copy = new PdfSmartCopy(document, outputStream);
+            copy.setCloseStream(false);
+            document.addTitle("Relatório Financeiro Anual");
+            document.open();
+
+            for (Section section : sections) {
+                SectionFile file = section.await();
+                PdfReader reader = open(section, file);
+                try {
+                    for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                        copy.addPage(copy.getImportedPage(reader, page));
+                    }
+                    copy.freeReader(reader);
+                } finally {
+                    reader.close();
+                    file.discard();
+                }
+            }
+
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Falha ao unir as seções do relatório anual", e);
+        }
+    }
+
+    private PdfReader open(Section section, SectionFile file) throws IOException {
+        try {
+            return file.open();
+        } catch (IOException e) {
+            if (file.temporary || Files.exists(file.path)) {
+                throw e;
+            }
+            // Seção removida do cache pela política LRU depois de gerada: gera de novo nesta thread
+            return section.renderer.render().open();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SectionRenderer {
+        SectionFile render() throws IOException;
+    }
+
+    /**
+     * PDF de uma seção em disco: do cache de relatórios ou temporário
+     */
+    private static final class SectionFile {
+
+        private final Path path;
+        private final boolean temporary;
+
+        SectionFile(Path path, boolean temporary) {
+            this.path = path;
+            this.temporary = temporary;
+        }
+
+        PdfReader open() throws IOException {
+            return new PdfReader(new RandomAccessFileOrArray(
+                    new RandomAccessSourceFactory().createBestSource(path.toString())), null);
+        }
+
+        void discard() {
+            if (!temporary) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("Não foi possível remover {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Seção gerada por quem chegar primeiro: uma thread do pool ou a thread do pedido
+     */
+    private static class Section implements Runnable {
+
+        private final SectionRenderer renderer;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<SectionFile> result = new CompletableFuture<>();
+
+        Section(SectionRenderer renderer) {
+            this.renderer = renderer;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(renderer.render());
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                // Ex: OutOfMemoryError. Sem completar, a união esperaria por esta seção para sempre
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        SectionFile await() throws IOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Geração do relatório anual interrompida");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IOException("Falha ao gerar a seção do relatório anual", e.getCause());
+            }
+        }
+
+        /**
+         * Remove o arquivo temporário quando a seção terminar, inclusive se a união foi abandonada antes
+         */
+        void close() {
+            result.thenAccept(SectionFile::discard);
+        }
+    }
+}
@@ -2,35 +2,45 @@ package com.dashboard.financeiro.service.report;
 
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.CategorySummaryDto;
-import com.dashboard.financeiro.model.Transaction;
-import com.dashboard.financeiro.model.User;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
 import com.dashboard.financeiro.repository.TransactionRepository;
 import com.dashboard.financeiro.repository.UserRepository;
 import com.dashboard.financeiro.service.FinancialSummaryService;
+import com.dashboard.financeiro.service.chart.ChartRenderingService;
+import com.dashboard.financeiro.service.chart.ChartRenderingService.ChartFormat;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.PiePlot;
-import org.jfree.data.general.DefaultPieDataset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.awt.Color;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class FinancialReportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FinancialReportService.class);
+
+    // Versão do layout do PDF; incrementar ao mudar o relatório invalida os arquivos em cache
+    public static final int TEMPLATE_VERSION = 3;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
@@ -40,13 +50,36 @@ public class FinancialReportService {
     @Autowired
     private FinancialSummaryService financialSummaryService;
 
+    @Autowired
+    private ChartRenderingService chartRenderingService;
+
     private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD, BaseColor.DARK_GRAY);
     private static final Font SUBTITLE_FONT = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD, BaseColor.DARK_GRAY);
     private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL);
     private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD, BaseColor.WHITE);
 
-    public ByteArrayOutputStream generateFinancialReport(String username, LocalDate startDate, LocalDate endDate) throws Exception {
-        User user = userRepository.findByUsername(username)
+    // Área de desenho dos gráficos, em pontos do PDF
+    private static final int CHART_WIDTH = 500;
+    private static final int CHART_HEIGHT = 300;
+
+    // Espaço reservado para cada valor do resumo, preenchido após a leitura das transações
+    private static final float SUMMARY_VALUE_WIDTH = 200;
+    private static final float SUMMARY_VALUE_HEIGHT = 12;
+
+    // Linhas acumuladas na tabela de transações antes de serem renderizadas e descartadas
+    @Value("${app.reports.table-flush-rows:200}")
+    private int tableFlushRows;
+
+    /**
+     * Gera o relatório escrevendo o PDF diretamente no stream de saída. As transações são lidas
+     * por cursor e a tabela é enviada ao documento em partes, então a memória usada não depende
+     * do tamanho do período. Totais e categorias são somados na mesma leitura que alimenta a tabela:
+     * cada relatório faz uma busca do usuário e uma leitura das transações. O stream não é fechado aqui
+     */
+    @Transactional(readOnly = true)
+    public void writeFinancialReport(String username, LocalDate startDate, LocalDate endDate,
+                                     OutputStream outputStream) throws IOException {
+        Long userId = userRepository.findIdByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
         if (startDate == null) {
@@ -57,26 +90,53 @@ public class FinancialReportService {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
 
-        // Obter transações do usuário
-        List<Transaction> transactions = transactionRepository.findByUserAndDateBetween(user, startDate, endDate);
+        Document document = new Document(PageSize.A4);
+        try (Stream<TransactionView> transactions = transactionRepository.streamViewsForReport(userId, startDate, endDate)) {
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            // Quem fecha o stream é o container; cada página concluída já segue para o cliente
+            writer.setCloseStream(false);
+
+            document.open();
+            addMetadata(document);
+            addHeader(document, username, startDate, endDate);
+            // O resumo vem antes da tabela, mas os totais só existem ao fim da leitura:
+            // os valores ficam em templates preenchidos depois, já que as páginas vão sendo enviadas
+            SummaryPlaceholders placeholders = addFinancialSummary(document, writer);
+            ReportTotals totals = new ReportTotals();
+            addTransactionsTable(document, transactions.iterator(), totals);
+
+            FinancialSummaryResponse summary = totals.toSummary();
+            placeholders.fill(summary);
+            addCategoryCharts(document, writer, summary);
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Falha ao gerar o relatório financeiro", e);
+        }
+    }
 
-        // Obter resumo financeiro
+    /**
+     * Capa do relatório anual dividido em seções mensais: cabeçalho, resumo do ano e gráficos.
+     * Os totais vêm do resumo agregado (rollup mensal), sem ler as transações do ano
+     */
+    @Transactional(readOnly = true)
+    public void writeAnnualCover(String username, LocalDate startDate, LocalDate endDate,
+                                 OutputStream outputStream) throws IOException {
         FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(username, startDate, endDate);
 
-        // Criar o documento PDF
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
         Document document = new Document(PageSize.A4);
-        PdfWriter writer = PdfWriter.getInstance(document, baos);
-
-        document.open();
-        addMetadata(document);
-        addHeader(document, user, startDate, endDate);
-        addFinancialSummary(document, summary);
-        addTransactionsTable(document, transactions);
-        addCategoryCharts(document, summary);
-        document.close();
-
-        return baos;
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+            writer.setCloseStream(false);
+
+            document.open();
+            addMetadata(document);
+            addHeader(document, username, startDate, endDate);
+            addFinancialSummary(document, writer).fill(summary);
+            addCategoryCharts(document, writer, summary);
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Falha ao gerar o relatório financeiro", e);
+        }
     }
 
     private void addMetadata(Document document) {
@@ -87,7 +147,7 @@ public class FinancialReportService {
         document.addCreator("Dashboard Financeiro - Sistema de Gestão Financeira");
     }
 
-    private void addHeader(Document document, User user, LocalDate startDate, LocalDate endDate) throws DocumentException {
+    private void addHeader(Document document, String username, LocalDate startDate, LocalDate endDate) throws DocumentException {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         
         Paragraph title = new Paragraph("Relatório Financeiro", TITLE_FONT);
@@ -95,7 +155,7 @@ public class FinancialReportService {
         title.setSpacingAfter(20);
         document.add(title);
 
-        Paragraph userInfo = new Paragraph("Usuário: " + user.getUsername(), NORMAL_FONT);
+        Paragraph userInfo = new Paragraph("Usuário: " + username, NORMAL_FONT);
         document.add(userInfo);
         
         Paragraph period = new Paragraph(
@@ -105,9 +165,7 @@ public class FinancialReportService {
         document.add(period);
     }
 
-    private void addFinancialSummary(Document document, FinancialSummaryResponse summary) throws DocumentException {
-        NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
-
+    private SummaryPlaceholders addFinancialSummary(Document document, PdfWriter writer) throws DocumentException {
         Paragraph summaryTitle = new Paragraph("Resumo Financeiro", SUBTITLE_FONT);
         summaryTitle.setSpacingBefore(15);
         summaryTitle.setSpacingAfter(10);
@@ -128,26 +186,33 @@ public class FinancialReportService {
         headerCell.setPhrase(new Phrase("Valor", HEADER_FONT));
         table.addCell(headerCell);
 
-        // Adicionar dados do resumo
-        addSummaryRow(table, "Saldo Atual", currencyFormatter.format(summary.getCurrentBalance()));
-        addSummaryRow(table, "Total de Receitas", currencyFormatter.format(summary.getTotalIncome()));
-        addSummaryRow(table, "Total de Despesas", currencyFormatter.format(summary.getTotalExpense()));
+        // Adicionar linhas do resumo com os valores reservados
+        PdfContentByte canvas = writer.getDirectContent();
+        SummaryPlaceholders placeholders = new SummaryPlaceholders(
+                canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT),
+                canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT),
+                canvas.createTemplate(SUMMARY_VALUE_WIDTH, SUMMARY_VALUE_HEIGHT));
+        addSummaryRow(table, "Saldo Atual", placeholders.balance);
+        addSummaryRow(table, "Total de Receitas", placeholders.income);
+        addSummaryRow(table, "Total de Despesas", placeholders.expense);
 
         document.add(table);
+        return placeholders;
     }
 
-    private void addSummaryRow(PdfPTable table, String label, String value) {
+    private void addSummaryRow(PdfPTable table, String label, PdfTemplate value) throws BadElementException {
         table.addCell(new Phrase(label, NORMAL_FONT));
-        table.addCell(new Phrase(value, NORMAL_FONT));
+        table.addCell(new PdfPCell(Image.getInstance(value), false));
     }
 
-    private void addTransactionsTable(Document document, List<Transaction> transactions) throws DocumentException {
+    private void addTransactionsTable(Document document, Iterator<TransactionView> transactions,
+                                      ReportTotals totals) throws DocumentException {
         Paragraph transactionsTitle = new Paragraph("Transações do Período", SUBTITLE_FONT);
         transactionsTitle.setSpacingBefore(20);
         transactionsTitle.setSpacingAfter(10);
         document.add(transactionsTitle);
 
-        if (transactions.isEmpty()) {
+        if (!transactions.hasNext()) {
             document.add(new Paragraph("Nenhuma transação encontrada no período selecionado.", NORMAL_FONT));
             return;
         }
@@ -155,6 +220,11 @@ public class FinancialReportService {
         PdfPTable table = new PdfPTable(5);
         table.setWidthPercentage(100);
         
+        // Tabela grande: cada document.add renderiza as linhas acumuladas e as remove da memória
+        table.setComplete(false);
+        // O cabeçalho se repete em cada página
+        table.setHeaderRows(1);
+        
         // Definir larguras relativas das colunas
         float[] columnWidths = {0.7f, 2f, 1.5f, 1.2f, 1.2f};
         table.setWidths(columnWidths);
@@ -184,13 +254,17 @@ public class FinancialReportService {
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
         NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
 
-        // Adicionar linhas de transações
-        for (Transaction transaction : transactions) {
+        // Adicionar linhas de transações à medida que chegam do cursor
+        int pendingRows = 0;
+        while (transactions.hasNext()) {
+            TransactionView transaction = transactions.next();
+            totals.add(transaction);
+            
             table.addCell(new Phrase(transaction.getDate().format(dateFormatter), NORMAL_FONT));
             table.addCell(new Phrase(transaction.getDescription(), NORMAL_FONT));
             
-            String categoryName = transaction.getCategory() != null ? 
-                    transaction.getCategory().getName() : "Sem categoria";
+            String categoryName = transaction.getCategoryName() != null ? 
+                    transaction.getCategoryName() : "Sem categoria";
             table.addCell(new Phrase(categoryName, NORMAL_FONT));
             
             table.addCell(new Phrase(transaction.getType().getDescription(), NORMAL_FONT));
@@ -199,12 +273,18 @@ public class FinancialReportService {
                     currencyFormatter.format(transaction.getAmount()), NORMAL_FONT));
             valueCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
             table.addCell(valueCell);
+            
+            if (++pendingRows == tableFlushRows) {
+                document.add(table);
+                pendingRows = 0;
+            }
         }
 
+        table.setComplete(true);
         document.add(table);
     }
 
-    private void addCategoryCharts(Document document, FinancialSummaryResponse summary) throws DocumentException, IOException {
+    private void addCategoryCharts(Document document, PdfWriter writer, FinancialSummaryResponse summary) throws DocumentException, IOException {
         if (summary.getExpensesByCategory() == null || summary.getExpensesByCategory().isEmpty()) {
             return;
         }
@@ -214,66 +294,57 @@ public class FinancialReportService {
         chartsTitle.setSpacingAfter(10);
         document.add(chartsTitle);
 
-        // Criar gráfico de pizza para despesas por categoria
-        JFreeChart chart = createPieChart("Despesas por Categoria", summary.getExpensesByCategory());
-        
-        // Converter o gráfico para imagem
-        ByteArrayOutputStream chartImageStream = new ByteArrayOutputStream();
-        BufferedImage chartImage = chart.createBufferedImage(500, 300);
-        ImageIO.write(chartImage, "png", chartImageStream);
-        
-        // Adicionar a imagem ao documento
-        Image image = Image.getInstance(chartImageStream.toByteArray());
-        image.setAlignment(Element.ALIGN_CENTER);
-        image.scalePercent(75);
-        document.add(image);
+        // Gráfico de pizza para despesas por categoria
+        addChart(document, writer, "Despesas por Categoria", summary.getExpensesByCategory());
 
         // Adicionar tabela com detalhes de despesas por categoria
         addCategoryTable(document, "Despesas por Categoria", summary.getExpensesByCategory());
 
         // Se houver categorias de receitas, adicionar também
         if (summary.getIncomesByCategory() != null && !summary.getIncomesByCategory().isEmpty()) {
-            // Criar gráfico de pizza para receitas por categoria
-            JFreeChart incomeChart = createPieChart("Receitas por Categoria", summary.getIncomesByCategory());
-            
-            // Converter o gráfico para imagem
-            ByteArrayOutputStream incomeChartImageStream = new ByteArrayOutputStream();
-            BufferedImage incomeChartImage = incomeChart.createBufferedImage(500, 300);
-            ImageIO.write(incomeChartImage, "png", incomeChartImageStream);
-            
-            // Adicionar a imagem ao documento
-            Image incomeImage = Image.getInstance(incomeChartImageStream.toByteArray());
-            incomeImage.setAlignment(Element.ALIGN_CENTER);
-            incomeImage.scalePercent(75);
-            document.add(incomeImage);
+            // Gráfico de pizza para receitas por categoria
+            addChart(document, writer, "Receitas por Categoria", summary.getIncomesByCategory());
             
             // Adicionar tabela com detalhes de receitas por categoria
             addCategoryTable(document, "Receitas por Categoria", summary.getIncomesByCategory());
         }
     }
 
-    private JFreeChart createPieChart(String title, List<CategorySummaryDto> categories) {
-        DefaultPieDataset dataset = new DefaultPieDataset();
-        
+    /**
+     * O gráfico vem do serviço de renderização como uma página de PDF vetorial (em cache para
+     * dados idênticos) e é importado como XObject de formulário, sem rasterização.
+     * Se a renderização falhar ou demorar demais, o relatório segue com um aviso no lugar do gráfico
+     */
+    private void addChart(Document document, PdfWriter writer, String title, List<CategorySummaryDto> categories)
+            throws DocumentException, IOException {
+        Map<String, BigDecimal> slices = new LinkedHashMap<>();
         for (CategorySummaryDto category : categories) {
-            dataset.setValue(category.getCategoryName(), category.getAmount().doubleValue());
+            slices.merge(category.getCategoryName(), category.getAmount(), BigDecimal::add);
+        }
+
+        byte[] chart;
+        try {
+            chart = chartRenderingService.renderPieChart(title, slices, CHART_WIDTH, CHART_HEIGHT, ChartFormat.PDF);
+        } catch (IllegalStateException e) {
+            logger.warn("Gráfico \"{}\" omitido do relatório: {}", title, e.getMessage());
+            Paragraph unavailable = new Paragraph(title + ": gráfico indisponível", NORMAL_FONT);
+            unavailable.setAlignment(Element.ALIGN_CENTER);
+            unavailable.setSpacingAfter(10);
+            document.add(unavailable);
+            return;
+        }
+
+        PdfReader reader = new PdfReader(chart);
+        try {
+            Image image = Image.getInstance(writer.getImportedPage(reader, 1));
+            image.setAlignment(Element.ALIGN_CENTER);
+            image.scalePercent(75);
+            document.add(image);
+            // Grava a página importada agora e libera o leitor
+            writer.freeReader(reader);
+        } finally {
+            reader.close();
         }
-        
-        JFreeChart chart = ChartFactory.createPieChart(
-                title,       // Título
-                dataset,     // Dataset
-                true,        // Legenda
-                true,        // Tooltips
-                false        // URLs
-        );
-        
-        // Personalizar o gráfico
-        PiePlot plot = (PiePlot) chart.getPlot();
-        plot.setShadowPaint(null);
-        plot.setBackgroundPaint(java.awt.Color.WHITE);
-        plot.setOutlineVisible(false);
-        
-        return chart;
     }
 
     private void addCategoryTable(Document document, String title, List<CategorySummaryDto> categories) throws DocumentException {
@@ -313,4 +384,81 @@ public class FinancialReportService {
 
         document.add(table);
     }
+
+    /**
+     * Valores do resumo reservados no início do documento. Os templates só são gravados
+     * no fechamento do PDF, então podem ser preenchidos depois das páginas que os usam
+     */
+    private static class SummaryPlaceholders {
+
+        private final PdfTemplate balance;
+        private final PdfTemplate income;
+        private final PdfTemplate expense;
+
+        SummaryPlaceholders(PdfTemplate balance, PdfTemplate income, PdfTemplate expense) {
+            this.balance = balance;
+            this.income = income;
+            this.expense = expense;
+        }
+
+        void fill(FinancialSummaryResponse summary) {
+            NumberFormat currencyFormatter = NumberFormat.getCurrencyInstance(new Locale("pt", "BR"));
+            write(balance, currencyFormatter.format(summary.getCurrentBalance()));
+            write(income, currencyFormatter.format(summary.getTotalIncome()));
+            write(expense, currencyFormatter.format(summary.getTotalExpense()));
+        }
+
+        private void write(PdfTemplate template, String value) {
+            ColumnText.showTextAligned(template, Element.ALIGN_LEFT, new Phrase(value, NORMAL_FONT), 0, 3, 0);
+        }
+    }
+
+    /**
+     * Totais por tipo e por categoria somados à medida que as transações passam pela tabela
+     */
+    private static class ReportTotals {
+
+        private BigDecimal totalIncome = BigDecimal.ZERO;
+        private BigDecimal totalExpense = BigDecimal.ZERO;
+        private final Map<Long, CategorySummaryDto> incomesByCategory = new LinkedHashMap<>();
+        private final Map<Long, CategorySummaryDto> expensesByCategory = new LinkedHashMap<>();
+
+        void add(TransactionView transaction) {
+            BigDecimal amount = transaction.getAmount();
+            Map<Long, CategorySummaryDto> byCategory;
+
+            if (transaction.getType() == TransactionType.INCOME) {
+                totalIncome = totalIncome.add(amount);
+                byCategory = incomesByCategory;
+            } else {
+                totalExpense = totalExpense.add(amount);
+                byCategory = expensesByCategory;
+            }
+
+            CategorySummaryDto category = byCategory.computeIfAbsent(transaction.getCategoryId(), id -> CategorySummaryDto.builder()
+                    .categoryId(id)
+                    .categoryName(transaction.getCategoryName() != null ? transaction.getCategoryName() : "Sem categoria")
+                    .amount(BigDecimal.ZERO)
+                    .categoryType(transaction.getType().getDescription())
+                    .build());
+            category.setAmount(category.getAmount().add(amount));
+        }
+
+        FinancialSummaryResponse toSummary() {
+            return FinancialSummaryResponse.builder()
+                    .currentBalance(totalIncome.subtract(totalExpense))
+                    .totalIncome(totalIncome)
+                    .totalExpense(totalExpense)
+                    .expensesByCategory(sorted(expensesByCategory))
+                    .incomesByCategory(sorted(incomesByCategory))
+                    .build();
+        }
+
+        // Maiores valores primeiro
+        private List<CategorySummaryDto> sorted(Map<Long, CategorySummaryDto> byCategory) {
+            List<CategorySummaryDto> categories = new ArrayList<>(byCategory.values());
+            categories.sort(Comparator.comparing(CategorySummaryDto::getAmount).reversed());
+            return categories;
+        }
+    }
 }
@@ -0,0 +1,358 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.admin.CacheStatsResponse.CacheStats;
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache em disco dos PDFs gerados, endereçado pelo conteúdo: o nome do arquivo é o SHA-256
+ * de usuário, período, versão do layout e versão dos dados. Qualquer escrita do usuário muda
+ * a versão dos dados, então um arquivo existente nunca fica desatualizado; os antigos apenas
+ * deixam de ser usados e saem pela remoção LRU quando o limite de bytes é atingido.
+ * Relatórios completos (downloads e jobs, via {@link ReportFileService}) e partes de relatório
+ * (como as seções mensais do relatório anual) dividem o mesmo espaço, cada um com sua chave
+ */
+@Service
+public class ReportCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCacheService.class);
+
+    private static final String EXTENSION = ".pdf";
+
+    @Value("${app.reports.cache.dir:data/report-cache}")
+    private String directory;
+
+    @Value("${app.reports.cache.max-bytes:536870912}")
+    private long maxBytes;
+
+    // Ordem de acesso: o primeiro elemento é o menos usado recentemente; acesso sob o monitor do serviço
+    private final LinkedHashMap<String, CachedReport> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // Uma única geração por chave; pedidos simultâneos do mesmo relatório aguardam a mesma
+    private final ConcurrentHashMap<String, CompletableFuture<CachedReport>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Reaproveita os arquivos de execuções anteriores: como a chave inclui a versão dos dados,
+     * continuam válidos. A ordem de modificação aproxima a ordem de uso
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(EXTENSION)) {
+                    files.add(entry);
+                } else if (name.endsWith(".tmp")) {
+                    // Geração interrompida por uma parada anterior
+                    deleteQuietly(entry);
+                }
+            }
+        }
+
+        files.sort(Comparator.comparingLong(this::lastModified));
+        synchronized (this) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = name.substring(0, name.length() - EXTENSION.length());
+                store(new CachedReport(key, file, Files.size(file)));
+            }
+        }
+
+        logger.info("Cache de relatórios em {}: {} arquivos, {} bytes", root, files.size(), totalBytes);
+    }
+
+    /**
+     * Arquivo da chave, se já estiver no cache; nunca gera
+     */
+    public Optional<CachedReport> find(String key) {
+        synchronized (this) {
+            CachedReport cached = index.get(key);
+            if (cached != null && Files.exists(cached.getFile())) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Retorna o arquivo da chave, gravando-o com {@code renderer} se ainda não existir.
+     * A chave identifica o relatório, não os bytes: o iText grava datas e /ID novos a cada geração,
+     * então um arquivo removido e gerado de novo tem outro conteúdo
+     */
+    public CachedReport getOrCreate(String key, ReportRenderer renderer) throws IOException {
+        synchronized (this) {
+            CachedReport cached = index.get(key);
+            if (cached != null && Files.exists(cached.getFile())) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            if (cached != null) {
+                // Arquivo removido por fora: a entrada deixa de valer
+                index.remove(key);
+                totalBytes -= cached.getSizeBytes();
+            }
+        }
+
+        misses.incrementAndGet();
+        CompletableFuture<CachedReport> created = new CompletableFuture<>();
+        CompletableFuture<CachedReport> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            CachedReport report = render(key, renderer);
+            synchronized (this) {
+                store(report);
+            }
+            created.complete(report);
+            return report;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * Como {@link #getOrCreate(String, ReportRenderer)}, copiando o PDF também para {@code copy}.
+     * Se esta chamada gera o arquivo, os bytes seguem para {@code copy} à medida que são escritos
+     * (a resposta começa antes de o PDF terminar); se o arquivo já existia ou outra chamada o gerou,
+     * o conteúdo é copiado do disco. {@code copy} não é fechado
+     */
+    public CachedReport getOrCreate(String key, ReportRenderer renderer, OutputStream copy) throws IOException {
+        AtomicBoolean written = new AtomicBoolean();
+        CachedReport report = getOrCreate(key, outputStream -> {
+            written.set(true);
+            renderer.write(new TeeOutputStream(outputStream, copy));
+        });
+        if (written.get()) {
+            return report;
+        }
+
+        try {
+            Files.copy(report.getFile(), copy);
+            return report;
+        } catch (NoSuchFileException e) {
+            // Removido pela política LRU antes da cópia: nada foi escrito em copy, gera de novo
+            return getOrCreate(key, renderer, copy);
+        }
+    }
+
+    /**
+     * Acertos, faltas e remoções, no mesmo formato das estatísticas dos caches em memória
+     */
+    public CacheStats stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        synchronized (this) {
+            return CacheStats.builder()
+                    .name("reportFiles")
+                    .hitCount(hitCount)
+                    .missCount(missCount)
+                    .evictionCount(evictions.get())
+                    .hitRate(requests == 0 ? 1.0 : (double) hitCount / requests)
+                    .estimatedSize(index.size())
+                    .sizeBytes(totalBytes)
+                    .build();
+        }
+    }
+
+    static String key(String username, ReportPeriod period, long dataVersion) {
+        return hash(username + ":" + period.getStartDate() + ":" + period.getEndDate()
+                + ":t" + FinancialReportService.TEMPLATE_VERSION + ":v" + dataVersion);
+    }
+
+    static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private CachedReport render(String key, ReportRenderer renderer) throws IOException {
+        Path target = Paths.get(directory).resolve(key + EXTENSION);
+        Path temp = Files.createTempFile(target.getParent(), "report-", ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.write(outputStream);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new CachedReport(key, target, Files.size(target));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Registra o arquivo e remove os menos usados até voltar ao limite. O arquivo recém-gerado
+     * nunca é removido aqui, mesmo que sozinho passe do limite. Downloads em andamento não são
+     * afetados: o canal já aberto continua lendo o arquivo removido
+     */
+    private void store(CachedReport report) {
+        CachedReport previous = index.put(report.getKey(), report);
+        if (previous != null) {
+            totalBytes -= previous.getSizeBytes();
+        }
+        totalBytes += report.getSizeBytes();
+
+        Iterator<CachedReport> eldest = index.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            CachedReport candidate = eldest.next();
+            if (candidate == report) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= candidate.getSizeBytes();
+            evictions.incrementAndGet();
+            deleteQuietly(candidate.getFile());
+        }
+    }
+
+    private CachedReport await(CompletableFuture<CachedReport> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Geração do relatório interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Falha ao gerar o relatório", e.getCause());
+        }
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Escreve no arquivo do cache e, ao mesmo tempo, no destino da cópia
+     */
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream file;
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream file, OutputStream copy) {
+            this.file = file;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            file.write(b);
+            copy.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            file.write(bytes, offset, length);
+            copy.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            file.flush();
+            copy.flush();
+        }
+    }
+
+    /**
+     * Escreve o PDF de uma chave no stream, sem fechá-lo
+     */
+    @FunctionalInterface
+    public interface ReportRenderer {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * PDF gravado no cache. O ETag de download vem do arquivo aberto (ver PdfDownloads), não só da chave
+     */
+    public static final class CachedReport {
+
+        private final String key;
+        private final Path file;
+        private final long sizeBytes;
+
+        CachedReport(String key, Path file, long sizeBytes) {
+            this.key = key;
+            this.file = file;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
+import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.CategorySummaryDto;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
+import com.dashboard.financeiro.service.FinancialSummaryService;
+import com.dashboard.financeiro.service.TransactionService;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportação das transações e do resumo em CSV e XLSX, para análise fora do sistema.
+ * As transações vêm do mesmo cursor do NDJSON e cada linha é escrita assim que lida:
+ * o CSV passa por um BufferedWriter e o XLSX usa o SXSSF, que mantém em memória só as
+ * últimas linhas da planilha e grava as demais em arquivo temporário. Em ambos a memória
+ * não cresce com a quantidade de transações. Os streams não são fechados aqui
+ */
+@Service
+public class ReportExportService {
+
+    public enum ExportFormat {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        XLSX("xlsx", MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        ExportFormat(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Formato pelo nome ("csv" ou "xlsx", sem diferenciar maiúsculas)
+         *
+         * @throws IllegalArgumentException se o formato não for suportado
+         */
+        public static ExportFormat of(String name) {
+            for (ExportFormat format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportação não suportado: " + name);
+        }
+    }
+
+    private static final String[] TRANSACTION_HEADERS = {
+            "id", "data", "tipo", "categoria_id", "categoria", "descricao", "valor", "moeda_original", "valor_original"
+    };
+
+    private static final String[] SUMMARY_HEADERS = {"grupo", "categoria_id", "categoria", "valor"};
+
+    // Caracteres iniciais que fazem uma planilha tratar o texto como fórmula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    // Marca de ordem de bytes: faz o Excel abrir o CSV como UTF-8 (acentos)
+    private static final char UTF8_BOM = '\uFEFF';
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private FinancialSummaryService financialSummaryService;
+
+    // Linhas do XLSX mantidas em memória; as anteriores já foram gravadas no arquivo temporário
+    @Value("${app.reports.export.xlsx-window-rows:100}")
+    private int xlsxWindowRows;
+
+    public void writeTransactions(String username, LocalDate startDate, LocalDate endDate,
+                                  ExportFormat format, OutputStream outputStream) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeTransactionsCsv(username, startDate, endDate, outputStream);
+        } else {
+            writeTransactionsXlsx(username, startDate, endDate, outputStream);
+        }
+    }
+
+    /**
+     * Totais do período e valores por categoria, a partir do resumo agregado
+     */
+    public void writeSummary(String username, LocalDate startDate, LocalDate endDate,
+                             ExportFormat format, OutputStream outputStream) throws IOException {
+        FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(username, startDate, endDate);
+
+        if (format == ExportFormat.CSV) {
+            writeSummaryCsv(summary, outputStream);
+        } else {
+            writeSummaryXlsx(summary, outputStream);
+        }
+    }
+
+    private void writeTransactionsCsv(String username, LocalDate startDate, LocalDate endDate,
+                                      OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(UTF8_BOM);
+        writeCsvRow(writer, (Object[]) TRANSACTION_HEADERS);
+
+        try {
+            transactionService.streamByFilters(username, null, startDate, endDate, transaction -> {
+                try {
+                    writeCsvRow(writer, transactionValues(transaction));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private void writeTransactionsXlsx(String username, LocalDate startDate, LocalDate endDate,
+                                       OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xlsxWindowRows);
+        workbook.setCompressTempFiles(true);
+        try {
+            XlsxSheets sheets = new XlsxSheets(workbook, "Transações", TRANSACTION_HEADERS);
+
+            transactionService.streamByFilters(username, null, startDate, endDate,
+                    transaction -> sheets.append(transactionValues(transaction)));
+
+            workbook.write(outputStream);
+        } finally {
+            // Remove os arquivos temporários das linhas já descarregadas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeSummaryCsv(FinancialSummaryResponse summary, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(UTF8_BOM);
+        writeCsvRow(writer, (Object[]) SUMMARY_HEADERS);
+        for (Object[] row : summaryRows(summary)) {
+            writeCsvRow(writer, row);
+        }
+        writer.flush();
+    }
+
+    private void writeSummaryXlsx(FinancialSummaryResponse summary, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(xlsxWindowRows);
+        workbook.setCompressTempFiles(true);
+        try {
+            XlsxSheets sheets = new XlsxSheets(workbook, "Resumo", SUMMARY_HEADERS);
+            for (Object[] row : summaryRows(summary)) {
+                sheets.append(row);
+            }
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private Object[] transactionValues(TransactionView transaction) {
+        return new Object[]{
+                transaction.getId(),
+                transaction.getDate(),
+                transaction.getType(),
+                transaction.getCategoryId(),
+                transaction.getCategoryName(),
+                transaction.getDescription(),
+                transaction.getAmount(),
+                transaction.getOriginalCurrency(),
+                transaction.getOriginalAmount()
+        };
+    }
+
+    private List<Object[]> summaryRows(FinancialSummaryResponse summary) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"RECEITAS", null, null, summary.getTotalIncome()});
+        rows.add(new Object[]{"DESPESAS", null, null, summary.getTotalExpense()});
+        rows.add(new Object[]{"SALDO", null, null, summary.getCurrentBalance()});
+        for (CategorySummaryDto category : summary.getIncomesByCategory()) {
+            rows.add(new Object[]{"RECEITA", category.getCategoryId(), category.getCategoryName(), category.getAmount()});
+        }
+        for (CategorySummaryDto category : summary.getExpensesByCategory()) {
+            rows.add(new Object[]{"DESPESA", category.getCategoryId(), category.getCategoryName(), category.getAmount()});
+        }
+        return rows;
+    }
+
+    /**
+     * Linha no formato RFC 4180: separador vírgula, valores com vírgula, aspas ou quebra de linha
+     * entre aspas (aspas internas duplicadas), números com ponto decimal e datas ISO.
+     * Textos que o Excel ou o Sheets interpretariam como fórmula recebem um apóstrofo na frente
+     */
+    static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        // Só textos livres (descrição, categoria); números negativos continuam numéricos
+        if (value instanceof String && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Escrita sequencial de linhas no XLSX. Ao atingir o limite de linhas do formato,
+     * continua em uma nova planilha com o mesmo cabeçalho
+     */
+    private static class XlsxSheets {
+
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+        private final SXSSFWorkbook workbook;
+        private final String name;
+        private final String[] headers;
+        private final CellStyle dateStyle;
+        private final CellStyle amountStyle;
+
+        private Sheet sheet;
+        private int sheetCount;
+        private int nextRow;
+
+        XlsxSheets(SXSSFWorkbook workbook, String name, String[] headers) {
+            this.workbook = workbook;
+            this.name = name;
+            this.headers = headers;
+
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+            amountStyle = workbook.createCellStyle();
+            amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            newSheet();
+        }
+
+        void append(Object[] values) {
+            if (nextRow == MAX_ROWS) {
+                newSheet();
+            }
+
+            Row row = sheet.createRow(nextRow++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BigDecimal decimal) {
+                    row.createCell(i).setCellValue(decimal.doubleValue());
+                    row.getCell(i).setCellStyle(amountStyle);
+                } else if (value instanceof Number number) {
+                    row.createCell(i).setCellValue(number.doubleValue());
+                } else if (value instanceof LocalDate date) {
+                    row.createCell(i).setCellValue(date);
+                    row.getCell(i).setCellStyle(dateStyle);
+                } else {
+                    row.createCell(i).setCellValue(value.toString());
+                }
+            }
+        }
+
+        private void newSheet() {
+            sheetCount++;
+            sheet = workbook.createSheet(sheetCount == 1 ? name : name + " (" + sheetCount + ")");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            nextRow = 1;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import com.dashboard.financeiro.service.report.ReportCacheService.ReportRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * PDFs completos de relatório no cache em disco, usados pelos downloads e pelos jobs.
+ * Decide como cada período é gerado (ano civil em seções mensais ou documento único)
+ * e endereça o arquivo pela versão atual dos dados do usuário
+ */
+@Service
+public class ReportFileService {
+
+    @Autowired
+    private ReportCacheService reportCacheService;
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private AnnualReportService annualReportService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    /**
+     * Chave do relatório na versão atual dos dados; também serve de ETag
+     */
+    public String key(String username, ReportPeriod period) {
+        return ReportCacheService.key(username, period, userDataVersionService.currentVersion(username));
+    }
+
+    /**
+     * Arquivo já gerado para a chave, sem gerar
+     */
+    public Optional<CachedReport> find(String key) {
+        return reportCacheService.find(key);
+    }
+
+    /**
+     * Arquivo do relatório, gerado e gravado no cache se ainda não existir
+     */
+    public CachedReport get(String username, ReportPeriod period) throws IOException {
+        return reportCacheService.getOrCreate(key(username, period), renderer(username, period));
+    }
+
+    /**
+     * Escreve o relatório da chave em {@code outputStream} enquanto grava o arquivo no cache,
+     * para que um download não espere a geração terminar. O stream não é fechado aqui
+     */
+    public CachedReport write(String key, String username, ReportPeriod period,
+                              OutputStream outputStream) throws IOException {
+        return reportCacheService.getOrCreate(key, renderer(username, period), outputStream);
+    }
+
+    private ReportRenderer renderer(String username, ReportPeriod period) {
+        if (period.isCalendarYear()) {
+            return outputStream -> annualReportService.writeAnnualReport(
+                    username, period.getStartDate(), period.getEndDate(), outputStream);
+        }
+        return outputStream -> financialReportService.writeFinancialReport(
+                username, period.getStartDate(), period.getEndDate(), outputStream);
+    }
+}
@@ -0,0 +1,128 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Pedido de relatório em segundo plano. O estado muda na thread do pool e é lido nas consultas,
+ * por isso os campos mutáveis são voláteis
+ */
+public class ReportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String username;
+    private final ReportPeriod period;
+    private final long dataVersion;
+    private final Instant createdAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile Instant expiresAt;
+    private volatile Path file;
+    private volatile long sizeBytes;
+    private volatile String reportKey;
+    private volatile String error;
+
+    public ReportJob(String id, String username, ReportPeriod period, long dataVersion, Instant createdAt) {
+        this.id = id;
+        this.username = username;
+        this.period = period;
+        this.dataVersion = dataVersion;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Chave de deduplicação: mesmo usuário, período e versão dos dados geram o mesmo PDF
+     */
+    public String getKey() {
+        return key(username, period, dataVersion);
+    }
+
+    static String key(String username, ReportPeriod period, long dataVersion) {
+        return username + ":" + period.getStartDate() + ":" + period.getEndDate() + ":v" + dataVersion;
+    }
+
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(Path file, long sizeBytes, String reportKey, Instant finishedAt, Instant expiresAt) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.reportKey = reportKey;
+        this.finishedAt = finishedAt;
+        this.expiresAt = expiresAt;
+        this.status = Status.COMPLETED;
+    }
+
+    void markFailed(String error, Instant finishedAt, Instant expiresAt) {
+        this.error = error;
+        this.finishedAt = finishedAt;
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public ReportPeriod getPeriod() {
+        return period;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Chave do arquivo no cache de relatórios, a mesma do download síncrono
+     */
+    public String getReportKey() {
+        return reportKey;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,169 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.config.executor.ExecutorConfig;
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Fila de relatórios em segundo plano: o pedido recebe um id, o PDF é gerado em um pool limitado
+ * e gravado no cache de relatórios, e o job aponta para esse arquivo até expirar.
+ * Pedidos repetidos do mesmo usuário, período e versão dos dados reaproveitam o mesmo job;
+ * um download síncrono do mesmo relatório usa o mesmo arquivo
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportFileService reportFileService;
+
+    @Autowired
+    private UserDataVersionService userDataVersionService;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.REPORT_EXECUTOR)
+    private Executor reportExecutor;
+
+    @Value("${app.reports.jobs.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.reports.jobs.max-per-user:2}")
+    private int maxPerUser;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // Jobs na fila ou em execução, por chave de deduplicação; acesso sempre sob o monitor do serviço
+    private final Map<String, ReportJob> activeByKey = new HashMap<>();
+
+    /**
+     * Enfileira um relatório ou devolve o job equivalente já existente
+     *
+     * @throws IllegalStateException se o usuário atingiu o limite de jobs ativos ou a fila estiver cheia
+     */
+    public ReportJob submit(String username, ReportPeriod period) {
+        long dataVersion = userDataVersionService.currentVersion(username);
+        String key = ReportJob.key(username, period, dataVersion);
+        ReportJob job;
+
+        synchronized (this) {
+            ReportJob active = activeByKey.get(key);
+            if (active != null) {
+                return active;
+            }
+
+            Optional<ReportJob> completed = jobs.values().stream()
+                    .filter(existing -> existing.getStatus() == ReportJob.Status.COMPLETED)
+                    .filter(existing -> key.equals(existing.getKey()))
+                    // O arquivo pode já ter saído do cache: nesse caso gera de novo
+                    .filter(existing -> Files.exists(existing.getFile()))
+                    .findFirst();
+            if (completed.isPresent()) {
+                return completed.get();
+            }
+
+            long activeForUser = activeByKey.values().stream()
+                    .filter(existing -> existing.getUsername().equals(username))
+                    .count();
+            if (activeForUser >= maxPerUser) {
+                throw new IllegalStateException("Limite de relatórios em andamento atingido");
+            }
+
+            job = new ReportJob(UUID.randomUUID().toString(), username, period, dataVersion, Instant.now());
+            activeByKey.put(key, job);
+            jobs.put(job.getId(), job);
+        }
+
+        try {
+            reportExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            release(job);
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Fila de relatórios cheia, tente novamente em instantes");
+        }
+
+        return job;
+    }
+
+    /**
+     * Job do usuário; jobs de outros usuários são tratados como inexistentes
+     */
+    public Optional<ReportJob> find(String id, String username) {
+        return Optional.ofNullable(jobs.get(id))
+                .filter(job -> job.getUsername().equals(username));
+    }
+
+    public List<ReportJob> findAllByUser(String username) {
+        return jobs.values().stream()
+                .filter(job -> job.getUsername().equals(username))
+                .sorted(Comparator.comparing(ReportJob::getCreatedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remove jobs expirados. Os arquivos ficam no cache de relatórios, que os remove pela política LRU
+     */
+    @Scheduled(fixedDelayString = "${app.reports.jobs.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.getExpiresAt() != null && !job.getExpiresAt().isAfter(now));
+    }
+
+    private void run(ReportJob job) {
+        job.markRunning();
+
+        try {
+            // O cache grava em arquivo temporário e move de forma atômica: o PDF nunca aparece pela metade
+            CachedReport report = reportFileService.get(job.getUsername(), job.getPeriod());
+
+            Instant now = Instant.now();
+            job.markCompleted(report.getFile(), report.getSizeBytes(), report.getKey(), now, now.plus(ttl()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Falha ao gerar o relatório {} de {}: {}", job.getId(), job.getUsername(), e.getMessage());
+            fail(job);
+        } catch (Error e) {
+            // Ex: OutOfMemoryError. O job não pode ficar RUNNING para sempre; o erro segue para o pool
+            logger.error("Erro grave ao gerar o relatório {} de {}", job.getId(), job.getUsername(), e);
+            fail(job);
+            throw e;
+        } finally {
+            release(job);
+        }
+    }
+
+    private void fail(ReportJob job) {
+        Instant now = Instant.now();
+        job.markFailed("Falha ao gerar o relatório", now, now.plus(ttl()));
+    }
+
+    private synchronized void release(ReportJob job) {
+        activeByKey.remove(job.getKey(), job);
+    }
+
+    private Duration ttl() {
+        return Duration.ofMinutes(ttlMinutes);
+    }
+}
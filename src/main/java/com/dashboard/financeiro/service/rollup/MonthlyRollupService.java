@@ -0,0 +1,186 @@
+package com.dashboard.financeiro.service.rollup;
+
+import com.dashboard.financeiro.dto.admin.RollupVerificationResponse;
+import com.dashboard.financeiro.dto.admin.RollupVerificationResponse.RollupDrift;
+import com.dashboard.financeiro.dto.summary.CategoryTotalView;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import com.dashboard.financeiro.repository.MonthlyRollupRepository;
+import com.dashboard.financeiro.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantém e consulta o rollup mensal de transações (monthly_rollups).
+ * Meses completos são lidos do rollup; apenas as bordas parciais de um período
+ * são agregadas a partir das transações brutas
+ */
+@Service
+public class MonthlyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyRollupService.class);
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Value("${app.rollup.rebuild-on-startup-if-empty:true}")
+    private boolean rebuildOnStartupIfEmpty;
+
+    /**
+     * Aplica as variações acumuladas. Deve participar da mesma transação da escrita em transactions
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(RollupDeltas deltas) {
+        Set<Long> usersWithRemovals = new HashSet<>();
+
+        deltas.forEach((key, delta) -> {
+            monthlyRollupRepository.applyDelta(
+                    key.userId(),
+                    key.categoryId(),
+                    key.type().name(),
+                    key.yearMonth(),
+                    delta.getAmount(),
+                    delta.getCount());
+
+            if (delta.getCount() < 0) {
+                usersWithRemovals.add(key.userId());
+            }
+        });
+
+        // Linhas que ficaram sem transações não devem aparecer nos resumos
+        usersWithRemovals.forEach(monthlyRollupRepository::deleteEmptyByUserId);
+    }
+
+    /**
+     * Totais por categoria de um único tipo no período, combinando rollup (meses completos)
+     * e transações brutas (bordas parciais), com o filtro de tipo aplicado nas consultas
+     */
+    public List<CategoryTotalView> sumByCategory(Long userId, TransactionType type,
+                                                 LocalDate startDate, LocalDate endDate) {
+        RollupRange range = RollupRange.of(startDate, endDate);
+        Map<String, CategoryTotalView> totals = new LinkedHashMap<>();
+
+        if (range.hasFullMonths()) {
+            merge(totals, monthlyRollupRepository.sumByCategoryAndType(
+                    userId, type, range.getFromMonth(), range.getToMonth()));
+        }
+
+        if (range.hasPartialEdges()) {
+            merge(totals, transactionRepository.sumByCategoryAndTypeBetween(
+                    userId, type,
+                    range.getHeadStart(), range.getHeadEnd(),
+                    range.getTailStart(), range.getTailEnd()));
+        }
+
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Totais por mês e tipo no período, em uma única consulta.
+     * Cada linha contém year_month (yyyyMM), o nome do tipo e o valor somado
+     */
+    public List<Object[]> sumByMonthAndType(Long userId, LocalDate startDate, LocalDate endDate) {
+        RollupRange range = RollupRange.of(startDate, endDate);
+
+        return monthlyRollupRepository.sumByMonthAndType(
+                userId, range.getFromMonth(), range.getToMonth(),
+                range.getHeadStart(), range.getHeadEnd(),
+                range.getTailStart(), range.getTailEnd());
+    }
+
+    /**
+     * Compara o rollup com os totais recalculados das transações e lista as divergências
+     */
+    @Transactional(readOnly = true)
+    public RollupVerificationResponse verify() {
+        List<RollupDrift> drifts = new ArrayList<>();
+
+        for (Object[] row : monthlyRollupRepository.findDrift()) {
+            drifts.add(RollupDrift.builder()
+                    .userId(((Number) row[0]).longValue())
+                    .categoryId(((Number) row[1]).longValue())
+                    .type((String) row[2])
+                    .yearMonth(((Number) row[3]).intValue())
+                    .rollupAmount((BigDecimal) row[4])
+                    .actualAmount((BigDecimal) row[5])
+                    .rollupCount(((Number) row[6]).longValue())
+                    .actualCount(((Number) row[7]).longValue())
+                    .build());
+        }
+
+        return RollupVerificationResponse.builder()
+                .consistent(drifts.isEmpty())
+                .driftCount(drifts.size())
+                .drifts(drifts)
+                .build();
+    }
+
+    /**
+     * Recalcula o rollup a partir das transações, de um usuário ou de todos (userId nulo)
+     *
+     * @return quantidade de linhas geradas no rollup
+     */
+    @Transactional
+    public int rebuild(Long userId) {
+        if (userId == null) {
+            monthlyRollupRepository.deleteAllRows();
+            return monthlyRollupRepository.rebuildAll();
+        }
+
+        monthlyRollupRepository.deleteByUserId(userId);
+        return monthlyRollupRepository.rebuildForUser(userId);
+    }
+
+    /**
+     * Popula o rollup na primeira inicialização com dados já existentes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (!rebuildOnStartupIfEmpty) {
+            return;
+        }
+
+        if (monthlyRollupRepository.count() == 0 && transactionRepository.count() > 0) {
+            int rows = rebuild(null);
+            logger.info("Rollup mensal reconstruído na inicialização: {} linhas", rows);
+        }
+    }
+
+    private void merge(Map<String, CategoryTotalView> totals, List<CategoryTotalView> views) {
+        for (CategoryTotalView view : views) {
+            String key = view.getCategoryId() + ":" + view.getType();
+            CategoryTotalView current = totals.get(key);
+
+            if (current == null) {
+                totals.put(key, new CategoryTotalView(
+                        view.getCategoryId(),
+                        view.getCategoryName(),
+                        view.getType(),
+                        view.getAmount(),
+                        view.getTransactionCount()));
+            } else {
+                current.setAmount(current.getAmount().add(view.getAmount()));
+                current.setTransactionCount(current.getTransactionCount() + view.getTransactionCount());
+            }
+        }
+    }
+}
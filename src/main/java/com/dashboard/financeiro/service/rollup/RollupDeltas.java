@@ -0,0 +1,74 @@
+package com.dashboard.financeiro.service.rollup;
+
+import com.dashboard.financeiro.model.Transaction;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Acumula as variações do rollup mensal geradas por escritas em transações.
+ * Variações na mesma chave são somadas, então um lote gera uma atualização por linha do rollup
+ */
+public final class RollupDeltas {
+
+    private final Map<RollupKey, Delta> deltas = new LinkedHashMap<>();
+
+    /**
+     * Registra a inclusão de uma transação (usuário e categoria já definidos)
+     */
+    public RollupDeltas add(Transaction transaction) {
+        return merge(transaction, transaction.getAmount(), 1);
+    }
+
+    /**
+     * Registra a remoção de uma transação. Deve ser chamado antes de alterar seus campos
+     */
+    public RollupDeltas subtract(Transaction transaction) {
+        return merge(transaction, transaction.getAmount().negate(), -1);
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    void forEach(BiConsumer<RollupKey, Delta> action) {
+        deltas.forEach(action);
+    }
+
+    private RollupDeltas merge(Transaction transaction, BigDecimal amount, long count) {
+        RollupKey key = new RollupKey(
+                transaction.getUser().getId(),
+                transaction.getCategory().getId(),
+                transaction.getType(),
+                RollupRange.toYearMonth(transaction.getDate()));
+
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.amount = delta.amount.add(amount);
+        delta.count += count;
+
+        // Inclusão e remoção na mesma chave sem alteração de valor se anulam
+        if (delta.count == 0 && delta.amount.signum() == 0) {
+            deltas.remove(key);
+        }
+        return this;
+    }
+
+    record RollupKey(Long userId, Long categoryId, TransactionType type, Integer yearMonth) {
+    }
+
+    static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        BigDecimal getAmount() {
+            return amount;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
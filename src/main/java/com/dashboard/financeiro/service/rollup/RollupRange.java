@@ -0,0 +1,96 @@
+package com.dashboard.financeiro.service.rollup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Divide um período [início, fim] em meses completos (atendidos pelo rollup)
+ * e bordas de meses parciais (atendidas pelas transações brutas).
+ * Intervalos vazios são representados com início posterior ao fim
+ */
+public final class RollupRange {
+
+    // Intervalo vazio de meses do rollup (início posterior ao fim)
+    private static final int EMPTY_FROM_MONTH = 1;
+    private static final int EMPTY_TO_MONTH = 0;
+
+    private final int fromMonth;
+    private final int toMonth;
+    private final LocalDate headStart;
+    private final LocalDate headEnd;
+    private final LocalDate tailStart;
+    private final LocalDate tailEnd;
+
+    private RollupRange(int fromMonth, int toMonth,
+                        LocalDate headStart, LocalDate headEnd,
+                        LocalDate tailStart, LocalDate tailEnd) {
+        this.fromMonth = fromMonth;
+        this.toMonth = toMonth;
+        this.headStart = headStart;
+        this.headEnd = headEnd;
+        this.tailStart = tailStart;
+        this.tailEnd = tailEnd;
+    }
+
+    public static RollupRange of(LocalDate startDate, LocalDate endDate) {
+        YearMonth firstFull = startDate.getDayOfMonth() == 1
+                ? YearMonth.from(startDate)
+                : YearMonth.from(startDate).plusMonths(1);
+        YearMonth lastFull = endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+                ? YearMonth.from(endDate)
+                : YearMonth.from(endDate).minusMonths(1);
+
+        // Nenhum mês completo no período: tudo vem das transações brutas
+        if (firstFull.isAfter(lastFull)) {
+            return new RollupRange(EMPTY_FROM_MONTH, EMPTY_TO_MONTH, startDate, endDate, endDate.plusDays(1), endDate);
+        }
+
+        return new RollupRange(
+                toYearMonth(firstFull),
+                toYearMonth(lastFull),
+                startDate,
+                firstFull.atDay(1).minusDays(1),
+                lastFull.atEndOfMonth().plusDays(1),
+                endDate);
+    }
+
+    public static int toYearMonth(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+
+    public static int toYearMonth(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    public boolean hasFullMonths() {
+        return fromMonth <= toMonth;
+    }
+
+    public boolean hasPartialEdges() {
+        return !headStart.isAfter(headEnd) || !tailStart.isAfter(tailEnd);
+    }
+
+    public int getFromMonth() {
+        return fromMonth;
+    }
+
+    public int getToMonth() {
+        return toMonth;
+    }
+
+    public LocalDate getHeadStart() {
+        return headStart;
+    }
+
+    public LocalDate getHeadEnd() {
+        return headEnd;
+    }
+
+    public LocalDate getTailStart() {
+        return tailStart;
+    }
+
+    public LocalDate getTailEnd() {
+        return tailEnd;
+    }
+}
@@ -0,0 +1,115 @@
+package com.dashboard.financeiro.util;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * Intervalo de bytes de um cabeçalho Range (RFC 9110), com o fim inclusivo.
+ * Só intervalos únicos são atendidos; listas de intervalos recebem o arquivo inteiro
+ */
+public final class ByteRange {
+
+    private static final String BYTES_PREFIX = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Interpreta o cabeçalho Range para um arquivo de {@code length} bytes
+     *
+     * @return vazio quando não há cabeçalho ou ele deve ser ignorado (malformado ou com vários intervalos)
+     * @throws IllegalArgumentException se o intervalo estiver fora do arquivo (resposta 416)
+     */
+    public static Optional<ByteRange> parse(String range, long length) {
+        if (range == null || !range.startsWith(BYTES_PREFIX) || range.indexOf(',') >= 0) {
+            return Optional.empty();
+        }
+
+        String spec = range.substring(BYTES_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return Optional.empty();
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Sufixo: os últimos N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    throw new IllegalArgumentException("Intervalo não satisfatório");
+                }
+                return Optional.of(new ByteRange(Math.max(0, length - suffix), length - 1));
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start) {
+                // Intervalo mal formado: ignorado, o arquivo é enviado inteiro
+                return Optional.empty();
+            }
+            // Checado antes de limitar o fim ao tamanho: "bytes=1000-" em 1000 bytes é 416
+            if (start >= length) {
+                throw new IllegalArgumentException("Intervalo não satisfatório");
+            }
+            return Optional.of(new ByteRange(start, Math.min(end, length - 1)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Verifica a pré-condição If-Range: sem ela, ou quando o validador ainda corresponde,
+     * o intervalo pedido vale; caso contrário o arquivo mudou e deve ser enviado inteiro
+     *
+     * @param ifRange valor do cabeçalho If-Range (ETag forte ou data HTTP)
+     * @param etag ETag atual, entre aspas
+     * @param lastModifiedMillis data de modificação atual
+     */
+    public static boolean ifRangeMatches(String ifRange, String etag, long lastModifiedMillis) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // If-Range exige comparação forte: ETags fracos nunca correspondem
+            return value.equals(etag);
+        }
+
+        try {
+            long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().getEpochSecond();
+            return date == lastModifiedMillis / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Valor do cabeçalho Content-Range da resposta 206
+     */
+    public String contentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dashboard.financeiro.util;
+
+/**
+ * Comparação do cabeçalho If-None-Match com um ETag.
+ * Usada para responder 304 antes de calcular a resposta
+ */
+public final class ETagMatcher {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    private ETagMatcher() {
+    }
+
+    /**
+     * Verifica se o cliente já possui a representação identificada pelo ETag
+     *
+     * @param ifNoneMatch valor do cabeçalho If-None-Match (pode ser nulo ou uma lista)
+     * @param etag ETag atual, entre aspas
+     * @return true se algum dos ETags informados corresponder (comparação fraca, RFC 9110)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (ANY.equals(value)) {
+                return true;
+            }
+            if (value.startsWith(WEAK_PREFIX)) {
+                value = value.substring(WEAK_PREFIX.length());
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
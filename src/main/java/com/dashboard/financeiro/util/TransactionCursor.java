@@ -0,0 +1,64 @@
+package com.dashboard.financeiro.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação de transações (keyset em date DESC, id DESC).
+ * O token carrega a data e o id do último item da página anterior.
+ */
+public final class TransactionCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final LocalDate date;
+    private final Long id;
+
+    public TransactionCursor(LocalDate date, Long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Codifica o cursor em um token seguro para URL
+     *
+     * @return token opaco para ser devolvido ao cliente
+     */
+    public String encode() {
+        String raw = date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um token gerado por {@link #encode()}
+     *
+     * @param token token recebido do cliente
+     * @return o cursor correspondente
+     * @throws IllegalArgumentException se o token for inválido
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDate date = LocalDate.parse(raw.substring(0, separator));
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return new TransactionCursor(date, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException também é uma IllegalArgumentException
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.dashboard.financeiro.controller.currency;
 
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionRequest;
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse;
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse.ConversionResult;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionRequest;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionResponse;
 import com.dashboard.financeiro.dto.currency.FinancialSummaryConversionRequest;
@@ -19,10 +22,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -77,6 +84,52 @@ public class CurrencyControllerTest {
                 .andExpect(jsonPath("$.exchangeRate").value(0.20));
     }
 
+    @Test
+    @DisplayName("Deve converter um lote de valores informando o snapshot de taxas")
+    @WithMockUser(username = "testuser")
+    public void shouldConvertCurrencyBatch() throws Exception {
+        // Configuração
+        CurrencyBatchConversionRequest request = new CurrencyBatchConversionRequest(Arrays.asList(
+                new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD"),
+                new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "XYZ")));
+
+        CurrencyBatchConversionResponse response = CurrencyBatchConversionResponse.builder()
+                .ratesBase("USD")
+                .ratesUpdatedAt(LocalDateTime.now())
+                .total(2)
+                .converted(1)
+                .failed(1)
+                .results(Arrays.asList(
+                        ConversionResult.builder().index(0).convertedAmount(new BigDecimal("20.00")).build(),
+                        ConversionResult.builder().index(1).error("Moeda não suportada").build()))
+                .build();
+
+        when(currencyService.convertBatch(anyList())).thenReturn(response);
+
+        // Execução e Verificação
+        mockMvc.perform(post("/api/currency/convert/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.ratesBase").value("USD"))
+                .andExpect(jsonPath("$.results[0].convertedAmount").value(20.0))
+                .andExpect(jsonPath("$.results[1].error").value("Moeda não suportada"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote de conversões vazio")
+    @WithMockUser(username = "testuser")
+    public void shouldRejectEmptyCurrencyBatch() throws Exception {
+        CurrencyBatchConversionRequest request = new CurrencyBatchConversionRequest(Collections.emptyList());
+
+        mockMvc.perform(post("/api/currency/convert/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Deve retornar erro 401 quando não autenticado")
     public void shouldReturnUnauthorizedWhenNotAuthenticated() throws Exception {
@@ -110,7 +163,7 @@ public class CurrencyControllerTest {
                 .build();
 
         when(currencyService.convertFinancialSummary(
-                anyString(), any(LocalDate.class), any(LocalDate.class), anyString()))
+                anyString(), any(LocalDate.class), any(LocalDate.class), anyString(), anyBoolean()))
                 .thenReturn(response);
 
         // Execução e Verificação
@@ -138,7 +191,7 @@ public class CurrencyControllerTest {
                 .build();
 
         when(currencyService.convertFinancialSummary(
-                anyString(), any(LocalDate.class), any(LocalDate.class), anyString()))
+                anyString(), any(LocalDate.class), any(LocalDate.class), anyString(), anyBoolean()))
                 .thenReturn(response);
 
         // Execução e Verificação
@@ -0,0 +1,197 @@
+package com.dashboard.financeiro.repository;
+
+import com.dashboard.financeiro.dto.summary.CategoryTotalView;
+import com.dashboard.financeiro.dto.transaction.TransactionView;
+import com.dashboard.financeiro.model.Category;
+import com.dashboard.financeiro.model.Role;
+import com.dashboard.financeiro.model.Transaction;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import com.dashboard.financeiro.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Garante que as leituras por projeção executam uma única instrução SQL,
+ * sem carregar as associações EAGER de Transaction (categoria, usuário e papéis)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class TransactionRepositoryQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long foodCategoryId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setName(Role.RoleName.ROLE_USER);
+        entityManager.persist(role);
+
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("password");
+        user.setName("Usuário de Teste");
+        user.setEmail("testuser@example.com");
+        Set<Role> roles = new HashSet<>();
+        roles.add(role);
+        user.setRoles(roles);
+        entityManager.persist(user);
+
+        Category food = createCategory("Alimentação", Category.CategoryType.EXPENSE, user);
+        Category salary = createCategory("Salário", Category.CategoryType.INCOME, user);
+
+        for (int day = 1; day <= 10; day++) {
+            createTransaction(user, food, TransactionType.EXPENSE, LocalDate.of(2024, 3, day), "50.00");
+            createTransaction(user, salary, TransactionType.INCOME, LocalDate.of(2024, 3, day), "100.00");
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        userId = user.getId();
+        foodCategoryId = food.getId();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Listagem completa deve executar uma única instrução")
+    void listingShouldUseSingleStatement() {
+        List<TransactionView> views = transactionRepository.findViewsByUserId(userId);
+
+        assertEquals(20, views.size());
+        assertEquals("Alimentação", views.stream()
+                .filter(view -> view.getType() == TransactionType.EXPENSE)
+                .findFirst()
+                .orElseThrow()
+                .getCategoryName());
+        assertSingleStatement();
+    }
+
+    @Test
+    @DisplayName("Filtro por categoria e período deve executar uma única instrução")
+    void filterShouldUseSingleStatement() {
+        List<TransactionView> views = transactionRepository.findViewsByFilters(
+                userId, foodCategoryId, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 5));
+
+        assertEquals(5, views.size());
+        assertTrue(views.stream().allMatch(view -> foodCategoryId.equals(view.getCategoryId())));
+        assertSingleStatement();
+    }
+
+    @Test
+    @DisplayName("Consulta do relatório deve executar uma única instrução")
+    void reportShouldUseSingleStatement() {
+        List<TransactionView> views;
+        try (Stream<TransactionView> stream = transactionRepository.streamViewsForReport(
+                userId, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31))) {
+            views = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(20, views.size());
+        assertEquals(LocalDate.of(2024, 3, 1), views.get(0).getDate());
+        assertSingleStatement();
+    }
+
+    @Test
+    @DisplayName("Página por cursor deve executar uma única instrução")
+    void pageShouldUseSingleStatement() {
+        Slice<TransactionView> firstPage = transactionRepository.findViewPageByUserId(userId, PageRequest.of(0, 8));
+        TransactionView last = firstPage.getContent().get(firstPage.getContent().size() - 1);
+
+        assertTrue(firstPage.hasNext());
+        assertSingleStatement();
+
+        statistics.clear();
+        Slice<TransactionView> secondPage = transactionRepository.findViewPageByUserIdAfterCursor(
+                userId, last.getDate(), last.getId(), PageRequest.of(0, 8));
+
+        assertEquals(8, secondPage.getContent().size());
+        assertTrue(secondPage.getContent().stream().noneMatch(view -> view.getId().equals(last.getId())));
+        assertSingleStatement();
+    }
+
+    @Test
+    @DisplayName("Leitura em Stream deve executar uma única instrução")
+    void streamShouldUseSingleStatement() {
+        List<Long> ids;
+        try (Stream<TransactionView> views = transactionRepository.streamViewsByUserId(userId)) {
+            ids = views.map(TransactionView::getId).collect(Collectors.toList());
+        }
+
+        assertEquals(20, ids.size());
+        assertSingleStatement();
+    }
+
+    @Test
+    @DisplayName("Agregação de despesas por categoria deve executar uma única instrução")
+    void expenseAggregationShouldUseSingleStatement() {
+        List<CategoryTotalView> totals = transactionRepository.sumByCategoryAndTypeBetween(
+                userId, TransactionType.EXPENSE,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31),
+                LocalDate.of(2024, 4, 1), LocalDate.of(2024, 3, 31));
+
+        assertEquals(1, totals.size());
+        assertEquals(foodCategoryId, totals.get(0).getCategoryId());
+        assertEquals(0, new BigDecimal("500.00").compareTo(totals.get(0).getAmount()));
+        assertEquals(10L, totals.get(0).getTransactionCount());
+        assertSingleStatement();
+    }
+
+    private void assertSingleStatement() {
+        assertEquals(1, statistics.getPrepareStatementCount(), "Deve executar exatamente uma instrução SQL");
+        assertEquals(0, statistics.getEntityLoadCount(), "Nenhuma entidade deve ser carregada");
+    }
+
+    private Category createCategory(String name, Category.CategoryType type, User user) {
+        Category category = new Category();
+        category.setName(name);
+        category.setType(type);
+        category.setUser(user);
+        return entityManager.persist(category);
+    }
+
+    private void createTransaction(User user, Category category, TransactionType type, LocalDate date, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(user);
+        transaction.setCategory(category);
+        transaction.setType(type);
+        transaction.setDate(date);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDescription(type.getDescription());
+        entityManager.persist(transaction);
+    }
+}
@@ -7,7 +7,6 @@ import com.dashboard.financeiro.model.Transaction;
 import com.dashboard.financeiro.model.User;
 import com.dashboard.financeiro.repository.FinancialGoalRepository;
 import com.dashboard.financeiro.repository.TransactionRepository;
-import com.dashboard.financeiro.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,8 +19,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,9 +32,6 @@ public class FinancialSummaryServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
-    @Mock
-    private UserRepository userRepository;
-
     @Mock
     private FinancialGoalRepository financialGoalRepository;
 
@@ -46,8 +42,7 @@ public class FinancialSummaryServiceTest {
     private Category expenseCategory;
     private Category incomeCategory;
     private FinancialGoal achievedGoal;
-    private List<Object[]> expenseSummaries;
-    private List<Object[]> incomeSummaries;
+    private List<Object[]> summaryRows;
 
     @BeforeEach
     void setUp() {
@@ -76,12 +71,13 @@ public class FinancialSummaryServiceTest {
         achievedGoal.setCategory(expenseCategory);
         achievedGoal.setUser(testUser);
 
-        // Configurar dados de resumo por categoria
-        expenseSummaries = new ArrayList<>();
-        expenseSummaries.add(new Object[]{1L, "Alimentação", new BigDecimal("500.00")});
-
-        incomeSummaries = new ArrayList<>();
-        incomeSummaries.add(new Object[]{2L, "Salário", new BigDecimal("1500.00")});
+        // Configurar linhas do resumo (GROUPING SETS): geral, por tipo e por tipo e categoria
+        summaryRows = new ArrayList<>();
+        summaryRows.add(new Object[]{7, null, null, null, new BigDecimal("2000.00"), 5L});
+        summaryRows.add(new Object[]{3, "EXPENSE", null, null, new BigDecimal("500.00"), 4L});
+        summaryRows.add(new Object[]{3, "INCOME", null, null, new BigDecimal("1500.00"), 1L});
+        summaryRows.add(new Object[]{0, "EXPENSE", 1L, "Alimentação", new BigDecimal("500.00"), 4L});
+        summaryRows.add(new Object[]{0, "INCOME", 2L, "Salário", new BigDecimal("1500.00"), 1L});
     }
 
     @Test
@@ -91,38 +87,10 @@ public class FinancialSummaryServiceTest {
         LocalDate startDate = LocalDate.now().withDayOfMonth(1);
         LocalDate endDate = LocalDate.now();
 
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetween(
-                eq(testUser), 
-                eq(Transaction.TransactionType.INCOME), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(new BigDecimal("1500.00"));
+        stubSummaryRows("testuser", summaryRows);
         
-        when(transactionRepository.sumByUserAndTypeAndDateBetween(
-                eq(testUser), 
-                eq(Transaction.TransactionType.EXPENSE), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(new BigDecimal("500.00"));
-        
-        when(financialGoalRepository.findByUserAndAchievedTrue(testUser))
+        when(financialGoalRepository.findByUserUsernameAndAchievedTrue("testuser"))
                 .thenReturn(Arrays.asList(achievedGoal));
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetweenGroupByCategory(
-                eq(testUser), 
-                eq(Transaction.TransactionType.EXPENSE), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(expenseSummaries);
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetweenGroupByCategory(
-                eq(testUser), 
-                eq(Transaction.TransactionType.INCOME), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(incomeSummaries);
 
         // Execução
         FinancialSummaryResponse summary = financialSummaryService.getFinancialSummary(
@@ -162,7 +130,7 @@ public class FinancialSummaryServiceTest {
     @DisplayName("Deve lançar exceção quando usuário não é encontrado")
     void shouldThrowExceptionWhenUserNotFound() {
         // Configuração
-        when(userRepository.findByUsername("nonexistent")).thenReturn(Optional.empty());
+        stubSummaryRows("nonexistent", new ArrayList<>());
 
         // Execução e Verificação
         assertThrows(RuntimeException.class, () -> {
@@ -174,57 +142,37 @@ public class FinancialSummaryServiceTest {
     @DisplayName("Deve usar datas padrão quando não fornecidas")
     void shouldUseDefaultDatesWhenNotProvided() {
         // Configuração
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetween(
-                any(User.class), 
-                any(Transaction.TransactionType.class), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(BigDecimal.ZERO);
-        
-        when(financialGoalRepository.findByUserAndAchievedTrue(any(User.class)))
-                .thenReturn(new ArrayList<>());
+        stubSummaryRows("testuser", Collections.singletonList(new Object[]{7, null, null, null, null, null}));
         
-        when(transactionRepository.sumByUserAndTypeAndDateBetweenGroupByCategory(
-                any(User.class), 
-                any(Transaction.TransactionType.class), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
+        when(financialGoalRepository.findByUserUsernameAndAchievedTrue("testuser"))
                 .thenReturn(new ArrayList<>());
 
         // Execução
         financialSummaryService.getFinancialSummary("testuser", null, null);
 
-        // Verificação
-        verify(transactionRepository, times(2)).sumByUserAndTypeAndDateBetween(
-                eq(testUser), 
-                any(Transaction.TransactionType.class), 
-                any(LocalDate.class),  // Verificar se uma data foi usada
-                any(LocalDate.class)); // Verificar se uma data foi usada
+        // Verificação: mês atual completo, atendido apenas pelo rollup em uma única consulta
+        LocalDate firstDay = LocalDate.now().withDayOfMonth(1);
+        int currentMonth = firstDay.getYear() * 100 + firstDay.getMonthValue();
+        verify(transactionRepository, times(1)).summarizeByUsername(
+                eq("testuser"), 
+                eq(currentMonth), 
+                eq(currentMonth), 
+                any(LocalDate.class), 
+                any(LocalDate.class), 
+                any(LocalDate.class), 
+                any(LocalDate.class));
     }
 
     @Test
     @DisplayName("Deve lidar corretamente com valores nulos de transações")
     void shouldHandleNullTransactionValues() {
-        // Configuração
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetween(
-                eq(testUser), 
-                any(Transaction.TransactionType.class), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
-                .thenReturn(null); // Retornar null para simular ausência de transações
+        // Configuração: usuário sem transações no período (somas nulas e tipo nulo do LEFT JOIN)
+        stubSummaryRows("testuser", Arrays.asList(
+                new Object[]{7, null, null, null, null, null},
+                new Object[]{3, null, null, null, null, null},
+                new Object[]{0, null, null, null, null, null}));
         
-        when(financialGoalRepository.findByUserAndAchievedTrue(any(User.class)))
-                .thenReturn(new ArrayList<>());
-        
-        when(transactionRepository.sumByUserAndTypeAndDateBetweenGroupByCategory(
-                any(User.class), 
-                any(Transaction.TransactionType.class), 
-                any(LocalDate.class), 
-                any(LocalDate.class)))
+        when(financialGoalRepository.findByUserUsernameAndAchievedTrue("testuser"))
                 .thenReturn(new ArrayList<>());
 
         // Execução
@@ -237,4 +185,16 @@ public class FinancialSummaryServiceTest {
         assertEquals(BigDecimal.ZERO, summary.getTotalExpense());
         assertEquals(BigDecimal.ZERO, summary.getCurrentBalance());
     }
+
+    private void stubSummaryRows(String username, List<Object[]> rows) {
+        when(transactionRepository.summarizeByUsername(
+                eq(username), 
+                anyInt(), 
+                anyInt(), 
+                any(LocalDate.class), 
+                any(LocalDate.class), 
+                any(LocalDate.class), 
+                any(LocalDate.class)))
+                .thenReturn(rows);
+    }
 }
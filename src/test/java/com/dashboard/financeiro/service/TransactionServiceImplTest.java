@@ -0,0 +1,200 @@
+package com.dashboard.financeiro.service;
+
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse;
+import com.dashboard.financeiro.dto.transaction.TransactionBatchResponse.RowStatus;
+import com.dashboard.financeiro.dto.transaction.TransactionRequest;
+import com.dashboard.financeiro.model.Category;
+import com.dashboard.financeiro.model.Transaction;
+import com.dashboard.financeiro.model.User;
+import com.dashboard.financeiro.repository.CategoryRepository;
+import com.dashboard.financeiro.repository.TransactionRepository;
+import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.currency.BaseCurrencyConverter;
+import com.dashboard.financeiro.service.rollup.MonthlyRollupService;
+import com.dashboard.financeiro.service.rollup.RollupDeltas;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionServiceImplTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @Mock
+    private BaseCurrencyConverter baseCurrencyConverter;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private TransactionServiceImpl transactionService;
+
+    private User testUser;
+    private Category ownCategory;
+    private Category foreignCategory;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+
+        User otherUser = new User();
+        otherUser.setId(2L);
+
+        ownCategory = new Category();
+        ownCategory.setId(10L);
+        ownCategory.setName("Alimentação");
+        ownCategory.setType(Category.CategoryType.EXPENSE);
+        ownCategory.setUser(testUser);
+
+        foreignCategory = new Category();
+        foreignCategory.setId(20L);
+        foreignCategory.setName("Outros");
+        foreignCategory.setType(Category.CategoryType.EXPENSE);
+        foreignCategory.setUser(otherUser);
+
+        ReflectionTestUtils.setField(transactionService, "batchSize", 2);
+    }
+
+    @Test
+    @DisplayName("Deve resolver usuário e categorias uma única vez por lote")
+    void shouldResolveUserAndCategoriesOncePerBatch() {
+        // Configuração
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(createRequest(10L));
+        }
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(ownCategory));
+        AtomicLong sequence = new AtomicLong();
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId(sequence.incrementAndGet());
+            return transaction;
+        });
+
+        // Execução
+        TransactionBatchResponse response = transactionService.saveBatch(requests, "testuser");
+
+        // Verificações
+        assertEquals(5, response.getTotal());
+        assertEquals(5, response.getCreated());
+        assertEquals(0, response.getFailed());
+        assertEquals(5L, response.getResults().get(4).getTransaction().getId());
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(categoryRepository, times(1)).findAllById(anyIterable());
+        verify(categoryRepository, never()).findById(anyLong());
+        verify(transactionRepository, times(5)).save(any(Transaction.class));
+        // Lote de 2: flush após a 2ª e a 4ª linhas
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        // Todas as linhas caem na mesma chave do rollup: uma única aplicação
+        verify(monthlyRollupService, times(1)).apply(any(RollupDeltas.class));
+        // A versão de dados do usuário muda uma vez por lote, invalidando resumos e gráficos em cache
+        verify(userDataVersionService, times(1)).bump(1L);
+    }
+
+    @Test
+    @DisplayName("Deve retornar erro por linha sem rejeitar o lote inteiro")
+    void shouldReportPerRowErrors() {
+        // Configuração
+        List<TransactionRequest> requests = Arrays.asList(
+                createRequest(10L),
+                createRequest(20L),
+                createRequest(99L),
+                null);
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(ownCategory, foreignCategory));
+
+        // Execução
+        TransactionBatchResponse response = transactionService.saveBatch(requests, "testuser");
+
+        // Verificações
+        assertEquals(4, response.getTotal());
+        assertEquals(1, response.getCreated());
+        assertEquals(3, response.getFailed());
+        assertEquals(RowStatus.CREATED, response.getResults().get(0).getStatus());
+        assertEquals("Acesso negado à categoria", response.getResults().get(1).getError());
+        assertEquals("Categoria não encontrada", response.getResults().get(2).getError());
+        assertEquals(RowStatus.ERROR, response.getResults().get(3).getStatus());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar apenas a linha com moeda não suportada, usando um único snapshot de taxas")
+    void shouldRejectRowWithUnsupportedCurrency() {
+        // Configuração
+        TransactionRequest supported = createRequest(10L);
+        supported.setCurrency("USD");
+        TransactionRequest unsupported = createRequest(10L);
+        unsupported.setCurrency("XYZ");
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(categoryRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(ownCategory));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // As demais linhas chamam apply com outros argumentos
+        lenient().doThrow(new IllegalArgumentException("Moeda não suportada"))
+                .when(baseCurrencyConverter).apply(argThat(t -> "XYZ".equals(t.getOriginalCurrency())), any());
+
+        // Execução
+        TransactionBatchResponse response = transactionService.saveBatch(
+                Arrays.asList(supported, unsupported, createRequest(10L)), "testuser");
+
+        // Verificações
+        assertEquals(2, response.getCreated());
+        assertEquals("Moeda não suportada", response.getResults().get(1).getError());
+        verify(baseCurrencyConverter, times(1)).currentRates();
+        verify(transactionRepository, times(2)).save(any(Transaction.class));
+    }
+
+    private TransactionRequest createRequest(Long categoryId) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setType(Transaction.TransactionType.EXPENSE);
+        request.setDate(LocalDate.of(2024, 3, 15));
+        request.setDescription("Supermercado");
+        request.setCategoryId(categoryId);
+        return request;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dashboard.financeiro.service.cache;
+
+import com.dashboard.financeiro.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDataVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserDataVersionNotifier userDataVersionNotifier;
+
+    @InjectMocks
+    private UserDataVersionService userDataVersionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDataVersionService, "versionTtlMs", 60000L);
+        ReflectionTestUtils.setField(userDataVersionService, "maximumSize", 100L);
+        userDataVersionService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve consultar a versão no banco apenas uma vez por usuário")
+    void shouldMemoizeVersion() {
+        // Configuração
+        when(userDataVersionNotifier.isListening()).thenReturn(true);
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        when(userRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L));
+
+        // Execução
+        String first = userDataVersionService.keyForUser("testuser", "summary");
+        String second = userDataVersionService.keyForUser("testuser", "summary");
+
+        // Verificações
+        assertEquals(first, second);
+        assertTrue(first.contains(":v3:"));
+        verify(userRepository, times(1)).findIdByUsername("testuser");
+        verify(userRepository, times(1)).findDataVersionById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve passar a usar a nova versão somente após o commit da escrita")
+    void shouldApplyBumpAfterCommit() {
+        // Configuração
+        when(userDataVersionNotifier.isListening()).thenReturn(true);
+        when(userRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+        assertEquals(3L, userDataVersionService.currentVersion(1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Execução
+        userDataVersionService.bump(1L);
+
+        // Verificações: antes do commit os leitores ainda veem a versão anterior
+        assertEquals(3L, userDataVersionService.currentVersion(1L));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(4L, userDataVersionService.currentVersion(1L));
+        verify(userRepository, times(1)).incrementDataVersion(1L);
+        verify(userDataVersionNotifier).publish(1L, 4L);
+        verify(userRepository, times(2)).findDataVersionById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve ler a versão do banco a cada uso enquanto a escuta de notificações não está ativa")
+    void shouldReadVersionEachTimeWhileNotListening() {
+        // Configuração
+        when(userDataVersionNotifier.isListening()).thenReturn(false);
+        when(userRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+
+        // Execução
+        long first = userDataVersionService.currentVersion(1L);
+        long second = userDataVersionService.currentVersion(1L);
+
+        // Verificações: escrita de outra instância é vista na leitura seguinte
+        assertEquals(3L, first);
+        assertEquals(4L, second);
+        verify(userRepository, times(2)).findDataVersionById(1L);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar sem consultar o banco a versão notificada por outra instância")
+    @SuppressWarnings("unchecked")
+    void shouldApplyVersionFromOtherInstance() {
+        // Configuração
+        ArgumentCaptor<BiConsumer<Long, Long>> onVersion = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(userDataVersionNotifier).start(onVersion.capture(), any());
+        when(userDataVersionNotifier.isListening()).thenReturn(true);
+        when(userRepository.findDataVersionById(1L)).thenReturn(Optional.of(3L));
+        assertEquals(3L, userDataVersionService.currentVersion(1L));
+
+        // Execução
+        onVersion.getValue().accept(1L, 5L);
+
+        // Verificações
+        assertEquals(5L, userDataVersionService.currentVersion(1L));
+        verify(userRepository, times(1)).findDataVersionById(1L);
+    }
+}
@@ -0,0 +1,91 @@
+package com.dashboard.financeiro.service.chart;
+
+import com.dashboard.financeiro.dto.chart.MonthlyTrendChartDto;
+import com.dashboard.financeiro.service.rollup.MonthlyRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChartDataServiceTest {
+
+    @Mock
+    private MonthlyRollupService monthlyRollupService;
+
+    @InjectMocks
+    private ChartDataService chartDataService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chartDataService, "maxTrendMonths", 120);
+    }
+
+    @Test
+    @DisplayName("Deve distribuir os totais agrupados nos meses corretos")
+    void shouldBucketMonthlyTotals() {
+        // Configuração
+        YearMonth current = YearMonth.now();
+        YearMonth previous = current.minusMonths(1);
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{toYearMonth(previous), "INCOME", new BigDecimal("3000.00")},
+                new Object[]{toYearMonth(previous), "EXPENSE", new BigDecimal("1200.00")},
+                new Object[]{toYearMonth(current), "EXPENSE", new BigDecimal("800.00")});
+
+        when(monthlyRollupService.sumByMonthAndType(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(rows);
+
+        // Execução
+        MonthlyTrendChartDto trend = chartDataService.getMonthlyTrend(1L, 3);
+
+        // Verificação
+        assertEquals(3, trend.getMonths().size());
+        MonthlyTrendChartDto.MonthData first = trend.getMonths().get(0);
+        MonthlyTrendChartDto.MonthData middle = trend.getMonths().get(1);
+        MonthlyTrendChartDto.MonthData last = trend.getMonths().get(2);
+
+        assertEquals(BigDecimal.ZERO, first.getIncomeAmount());
+        assertEquals(previous.getMonthValue(), middle.getMonthNumber());
+        assertEquals(new BigDecimal("3000.00"), middle.getIncomeAmount());
+        assertEquals(new BigDecimal("1800.00"), middle.getBalance());
+        assertEquals(new BigDecimal("800.00"), last.getExpenseAmount());
+        assertEquals(0, new BigDecimal("3300.00").compareTo(trend.getMaxAmount()));
+    }
+
+    @Test
+    @DisplayName("Deve limitar a quantidade de meses e consultar uma única vez")
+    void shouldClampMonthsAndQueryOnce() {
+        // Configuração
+        when(monthlyRollupService.sumByMonthAndType(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(new ArrayList<>());
+
+        // Execução
+        MonthlyTrendChartDto trend = chartDataService.getMonthlyTrend(1L, 100000);
+
+        // Verificação
+        assertEquals(120, trend.getMonths().size());
+        verify(monthlyRollupService, times(1)).sumByMonthAndType(
+                eq(1L),
+                eq(YearMonth.now().minusMonths(119).atDay(1)),
+                any(LocalDate.class));
+    }
+
+    private Integer toYearMonth(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+}
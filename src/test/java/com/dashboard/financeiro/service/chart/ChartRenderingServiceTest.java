@@ -0,0 +1,89 @@
+package com.dashboard.financeiro.service.chart;
+
+import com.dashboard.financeiro.service.chart.ChartRenderingService.ChartFormat;
+import com.itextpdf.text.pdf.PdfReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChartRenderingServiceTest {
+
+    private ChartRenderingService chartRenderingService;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        chartRenderingService = new ChartRenderingService();
+        // Executor que conta as renderizações e roda na própria thread
+        Executor countingExecutor = task -> {
+            renders.incrementAndGet();
+            task.run();
+        };
+        ReflectionTestUtils.setField(chartRenderingService, "chartRenderExecutor", countingExecutor);
+        ReflectionTestUtils.setField(chartRenderingService, "cacheMaxBytes", 8L * 1024 * 1024);
+        ReflectionTestUtils.setField(chartRenderingService, "timeoutMs", 10000L);
+        chartRenderingService.init();
+    }
+
+    @Test
+    @DisplayName("Deve desenhar gráficos idênticos uma única vez")
+    void shouldReuseRenderedChartForSameData() {
+        // Execução: mesmos valores com escalas diferentes
+        byte[] first = chartRenderingService.renderPieChart("Despesas", slices("200.00"), 500, 300, ChartFormat.PNG);
+        byte[] second = chartRenderingService.renderPieChart("Despesas", slices("200.0"), 500, 300, ChartFormat.PNG);
+
+        // Verificações
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals(1, chartRenderingService.stats().getHitCount());
+    }
+
+    @Test
+    @DisplayName("Deve desenhar de novo quando os dados, as dimensões ou o formato mudam")
+    void shouldRenderAgainForDifferentKey() throws Exception {
+        // Execução
+        chartRenderingService.renderPieChart("Despesas", slices("200.00"), 500, 300, ChartFormat.PNG);
+        chartRenderingService.renderPieChart("Despesas", slices("250.00"), 500, 300, ChartFormat.PNG);
+        chartRenderingService.renderPieChart("Despesas", slices("200.00"), 800, 600, ChartFormat.PNG);
+        byte[] pdf = chartRenderingService.renderPieChart("Despesas", slices("200.00"), 500, 300, ChartFormat.PDF);
+
+        // Verificações
+        assertEquals(4, renders.get());
+        PdfReader reader = new PdfReader(pdf);
+        assertEquals(1, reader.getNumberOfPages());
+        assertEquals(500f, reader.getPageSize(1).getWidth());
+        reader.close();
+    }
+
+    @Test
+    @DisplayName("Deve falhar na hora, sem desenhar na thread que pediu, quando o pool está cheio")
+    void shouldFailFastWhenPoolIsFull() {
+        // Configuração
+        ReflectionTestUtils.setField(chartRenderingService, "chartRenderExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Pool cheio");
+        });
+
+        // Execução e verificação
+        assertThrows(IllegalStateException.class, () ->
+                chartRenderingService.renderPieChart("Despesas", slices("200.00"), 500, 300, ChartFormat.PNG));
+        assertEquals(0, renders.get());
+    }
+
+    private Map<String, BigDecimal> slices(String food) {
+        Map<String, BigDecimal> slices = new LinkedHashMap<>();
+        slices.put("Alimentação", new BigDecimal(food));
+        slices.put("Transporte", new BigDecimal("100.00"));
+        return slices;
+    }
+}
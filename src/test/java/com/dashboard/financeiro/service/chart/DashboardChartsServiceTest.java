@@ -0,0 +1,124 @@
+package com.dashboard.financeiro.service.chart;
+
+import com.dashboard.financeiro.dto.chart.CategoryExpenseChartDto;
+import com.dashboard.financeiro.dto.chart.DashboardChartsDto;
+import com.dashboard.financeiro.dto.chart.GoalsProgressChartDto;
+import com.dashboard.financeiro.dto.chart.MonthlyTrendChartDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DashboardChartsServiceTest {
+
+    @Mock
+    private ChartDataService chartDataService;
+
+    @InjectMocks
+    private DashboardChartsService dashboardChartsService;
+
+    private ExecutorService executor;
+
+    private final LocalDate startDate = LocalDate.of(2024, 3, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 3, 31);
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        ReflectionTestUtils.setField(dashboardChartsService, "dashboardExecutor", executor);
+        ReflectionTestUtils.setField(dashboardChartsService, "sectionTimeoutMs", 200L);
+
+        when(chartDataService.findUserId("testuser")).thenReturn(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve montar o painel completo resolvendo o usuário uma única vez")
+    void shouldBuildFullDashboard() {
+        // Configuração
+        when(chartDataService.getExpensesByCategory(1L, startDate, endDate)).thenReturn(new CategoryExpenseChartDto());
+        when(chartDataService.getMonthlyTrend(1L, 12)).thenReturn(new MonthlyTrendChartDto());
+        when(chartDataService.getGoalsProgress(1L)).thenReturn(new GoalsProgressChartDto());
+
+        // Execução
+        DashboardChartsDto dashboard = dashboardChartsService.getDashboardCharts("testuser", startDate, endDate, 12);
+
+        // Verificação
+        assertFalse(dashboard.isPartial());
+        assertTrue(dashboard.getErrors().isEmpty());
+        assertNotNull(dashboard.getExpensesByCategory());
+        assertNotNull(dashboard.getIncomeExpenseTrend());
+        assertNotNull(dashboard.getGoalsProgress());
+        verify(chartDataService, times(1)).findUserId("testuser");
+    }
+
+    @Test
+    @DisplayName("Deve retornar dados parciais quando uma seção excede o tempo ou falha")
+    void shouldReturnPartialDataOnSlowOrFailingSection() throws Exception {
+        // Configuração
+        when(chartDataService.getExpensesByCategory(1L, startDate, endDate)).thenReturn(new CategoryExpenseChartDto());
+        when(chartDataService.getMonthlyTrend(1L, 12)).thenThrow(new RuntimeException("Erro de banco"));
+        when(chartDataService.getGoalsProgress(1L)).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new GoalsProgressChartDto();
+        });
+
+        // Execução
+        long start = System.nanoTime();
+        DashboardChartsDto dashboard = dashboardChartsService.getDashboardCharts("testuser", startDate, endDate, 12);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Verificação
+        assertTrue(dashboard.isPartial());
+        assertNotNull(dashboard.getExpensesByCategory());
+        assertNull(dashboard.getIncomeExpenseTrend());
+        assertNull(dashboard.getGoalsProgress());
+        assertEquals("Falha ao carregar os dados", dashboard.getErrors().get(DashboardChartsDto.TREND_SECTION));
+        assertEquals("Tempo limite excedido", dashboard.getErrors().get(DashboardChartsDto.GOALS_SECTION));
+        assertTrue(elapsedMs < 2000, "O painel não deve esperar a seção lenta");
+
+        // A seção que expirou é interrompida, liberando a thread do pool
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve falhar a seção rejeitada pelo pool sem executá-la na thread da requisição")
+    void shouldNotRunRejectedSectionOnCallerThread() {
+        // Configuração
+        ReflectionTestUtils.setField(dashboardChartsService, "dashboardExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Pool cheio");
+        });
+
+        // Execução
+        DashboardChartsDto dashboard = dashboardChartsService.getDashboardCharts("testuser", startDate, endDate, 12);
+
+        // Verificação
+        assertTrue(dashboard.isPartial());
+        assertEquals("Serviço ocupado, tente novamente", dashboard.getErrors().get(DashboardChartsDto.EXPENSES_SECTION));
+        assertEquals("Serviço ocupado, tente novamente", dashboard.getErrors().get(DashboardChartsDto.GOALS_SECTION));
+        verify(chartDataService, never()).getExpensesByCategory(any(), any(), any());
+        verify(chartDataService, never()).getGoalsProgress(any());
+    }
+}
@@ -0,0 +1,70 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BaseCurrencyConverterTest {
+
+    private final BaseCurrencyConverter converter = new BaseCurrencyConverter();
+
+    @Test
+    @DisplayName("Deve fixar o valor em BRL e a taxa a partir da moeda original")
+    void shouldFixBaseAmountFromOriginalCurrency() {
+        // Configuração
+        Transaction transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setOriginalAmount(new BigDecimal("100.00"));
+        transaction.setOriginalCurrency("USD");
+
+        // Execução
+        converter.apply(transaction, crossRates());
+
+        // Verificações
+        assertEquals(new BigDecimal("500.00"), transaction.getAmount());
+        assertEquals(new BigDecimal("100.00"), transaction.getOriginalAmount());
+        assertEquals(0, new BigDecimal("5").compareTo(transaction.getExchangeRate()));
+    }
+
+    @Test
+    @DisplayName("Deve tratar transação sem moeda como BRL sem consultar taxas")
+    void shouldKeepBaseCurrencyAmount() {
+        // Configuração
+        Transaction transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("42.50"));
+
+        // Execução
+        converter.apply(transaction, null);
+
+        // Verificações
+        assertEquals("BRL", transaction.getOriginalCurrency());
+        assertEquals(new BigDecimal("42.50"), transaction.getOriginalAmount());
+        assertEquals(new BigDecimal("42.50"), transaction.getAmount());
+        assertEquals(BigDecimal.ONE, transaction.getExchangeRate());
+    }
+
+    @Test
+    @DisplayName("Deve recusar moeda não suportada")
+    void shouldRejectUnsupportedCurrency() {
+        // Configuração
+        Transaction transaction = new Transaction();
+        transaction.setOriginalAmount(new BigDecimal("10.00"));
+        transaction.setOriginalCurrency("XYZ");
+
+        // Execução e Verificação
+        assertThrows(IllegalArgumentException.class, () -> converter.apply(transaction, crossRates()));
+    }
+
+    private CrossRateTable crossRates() {
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("BRL", 5.0);
+        rates.put("EUR", 0.85);
+        return CrossRateTable.of("USD", rates);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dashboard.financeiro.service.currency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrossRateTableTest {
+
+    private Map<String, Double> rates;
+    private CrossRateTable table;
+
+    @BeforeEach
+    void setUp() {
+        rates = new HashMap<>();
+        rates.put("BRL", 5.0);
+        rates.put("EUR", 0.85);
+        rates.put("GBP", 0.75);
+
+        // USD é a base e entra na tabela mesmo sem constar nas taxas
+        table = CrossRateTable.of("USD", rates);
+    }
+
+    @Test
+    @DisplayName("Deve calcular as taxas cruzadas como destino dividido por origem")
+    void shouldMatchDirectRateComputation() {
+        assertEquals(4, table.size());
+
+        for (String from : new String[]{"USD", "BRL", "EUR", "GBP"}) {
+            for (String to : new String[]{"USD", "BRL", "EUR", "GBP"}) {
+                double fromRate = "USD".equals(from) ? 1.0 : rates.get(from);
+                double toRate = "USD".equals(to) ? 1.0 : rates.get(to);
+                BigDecimal expected = from.equals(to) ? BigDecimal.ONE : BigDecimal.valueOf(toRate / fromRate);
+
+                assertEquals(expected, table.rate(from, to), from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve converter com duas casas decimais pelos ordinais")
+    void shouldConvertByOrdinals() {
+        // Configuração
+        int brl = table.ordinal("BRL");
+        int usd = table.ordinal("USD");
+
+        // Execução
+        BigDecimal converted = table.convert(new BigDecimal("100.00"), brl, usd);
+
+        // Verificação
+        assertEquals(new BigDecimal("20.00"), converted);
+        assertEquals(new BigDecimal("500.00"), table.convert(new BigDecimal("100.00"), usd, brl));
+    }
+
+    @Test
+    @DisplayName("Deve indicar moedas não suportadas")
+    void shouldRejectUnknownCurrencies() {
+        assertEquals(-1, table.ordinal("XYZ"));
+        assertEquals(-1, table.ordinal(null));
+        assertNull(table.rate("BRL", "XYZ"));
+    }
+
+    @Test
+    @DisplayName("Deve deixar fora da tabela moedas com taxa nula, zero ou NaN")
+    void shouldSkipInvalidRates() {
+        // Configuração
+        Map<String, Double> invalid = new HashMap<>(rates);
+        invalid.put("ARS", 0.0);
+        invalid.put("VES", Double.NaN);
+        invalid.put("ZWL", null);
+        invalid.put("XAU", Double.POSITIVE_INFINITY);
+
+        // Execução
+        CrossRateTable filtered = CrossRateTable.of("USD", invalid);
+
+        // Verificações
+        assertEquals(4, filtered.size());
+        assertEquals(-1, filtered.ordinal("ARS"));
+        assertNull(filtered.rate("BRL", "VES"));
+        assertNull(filtered.rate("ZWL", "USD"));
+        assertNull(filtered.rate("XAU", "USD"));
+        assertEquals(BigDecimal.valueOf(0.85 / 5.0), filtered.rate("BRL", "EUR"));
+    }
+}
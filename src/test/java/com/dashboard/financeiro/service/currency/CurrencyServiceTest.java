@@ -1,31 +1,33 @@
 package com.dashboard.financeiro.service.currency;
 
+import com.dashboard.financeiro.dto.currency.CurrencyBatchConversionResponse;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionRequest;
 import com.dashboard.financeiro.dto.currency.CurrencyConversionResponse;
-import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.CategorySummaryDto;
 import com.dashboard.financeiro.dto.summary.FinancialSummaryResponse.FinancialGoalDto;
 import com.dashboard.financeiro.service.FinancialSummaryService;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,29 +40,19 @@ public class CurrencyServiceTest {
     private FinancialSummaryService financialSummaryService;
 
     @Mock
-    private WebClient webClient;
+    private ExchangeRateService exchangeRateService;
 
     @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
+    private ExchangeRateHistoryService exchangeRateHistoryService;
 
     @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
+    private UserDataVersionService userDataVersionService;
 
     @InjectMocks
     private CurrencyService currencyService;
 
-    private ExchangeRateResponse mockExchangeRateResponse;
-
     @BeforeEach
     void setUp() {
-        // Mock de WebClient
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), anyString())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-
         // Configuração de dados de teste
         Map<String, Double> rates = new HashMap<>();
         rates.put("USD", 1.0);
@@ -68,26 +60,25 @@ public class CurrencyServiceTest {
         rates.put("EUR", 0.85);
         rates.put("GBP", 0.75);
 
-        mockExchangeRateResponse = new ExchangeRateResponse();
-        mockExchangeRateResponse.setBase("USD");
-        mockExchangeRateResponse.setRates(rates);
+        // Nem todos os testes consultam as taxas (ex: moedas iguais)
+        lenient().when(exchangeRateService.getSnapshot())
+                .thenReturn(new ExchangeRateSnapshot("USD", rates, Instant.now()));
 
-        when(responseSpec.bodyToMono(ExchangeRateResponse.class)).thenReturn(Mono.just(mockExchangeRateResponse));
-
-        // Substituir o WebClient real pelo mock
-        ReflectionTestUtils.setField(currencyService, "webClient", webClient);
-        ReflectionTestUtils.setField(currencyService, "apiUrl", "https://testapi.com");
-        ReflectionTestUtils.setField(currencyService, "appId", "test-app-id");
+        // Chave de cache com os próprios argumentos (a versão dos dados não muda nos testes)
+        lenient().when(userDataVersionService.keyForUser(anyString(), any(Object[].class)))
+                .thenAnswer(invocation -> Arrays.deepToString(invocation.getArguments()));
+        ReflectionTestUtils.setField(currencyService, "cacheManager", new ConcurrentMapCacheManager());
     }
 
     @Test
     @DisplayName("Deve obter taxas de câmbio com sucesso")
     void shouldGetExchangeRates() {
         // Execução
-        ExchangeRateResponse result = currencyService.getExchangeRates();
+        ExchangeRateSnapshot result = currencyService.getExchangeRates();
 
         // Verificações
         assertNotNull(result);
+        assertFalse(result.isStale());
         assertEquals("USD", result.getBase());
         assertEquals(4, result.getRates().size());
         assertEquals(1.0, result.getRates().get("USD"));
@@ -149,6 +140,64 @@ public class CurrencyServiceTest {
         assertThrows(IllegalArgumentException.class, () -> currencyService.convertCurrency(request));
     }
 
+    @Test
+    @DisplayName("Deve converter um lote com um único snapshot de taxas e erros por linha")
+    void shouldConvertBatchWithSingleSnapshot() {
+        // Configuração
+        List<CurrencyConversionRequest> requests = Arrays.asList(
+                new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD"),
+                new CurrencyConversionRequest(new BigDecimal("10.00"), "USD", "BRL"),
+                new CurrencyConversionRequest(new BigDecimal("10.00"), "BRL", "XYZ"),
+                new CurrencyConversionRequest(null, "BRL", "USD"));
+
+        // Execução
+        CurrencyBatchConversionResponse response = currencyService.convertBatch(requests);
+
+        // Verificações
+        assertEquals(4, response.getTotal());
+        assertEquals(2, response.getConverted());
+        assertEquals(2, response.getFailed());
+        assertEquals("USD", response.getRatesBase());
+        assertFalse(response.isRatesStale());
+        assertEquals(new BigDecimal("20.00"), response.getResults().get(0).getConvertedAmount());
+        assertEquals(new BigDecimal("50.00"), response.getResults().get(1).getConvertedAmount());
+        assertEquals("Moeda não suportada", response.getResults().get(2).getError());
+        assertEquals("Valor não informado", response.getResults().get(3).getError());
+        verify(exchangeRateService, times(1)).getSnapshot();
+    }
+
+    @Test
+    @DisplayName("Deve buscar as taxas históricas de todas as datas do lote em uma única consulta")
+    void shouldLoadHistoricalRatesOnceForBatch() {
+        // Configuração
+        LocalDate june = LocalDate.of(2023, 6, 15);
+        LocalDate july = LocalDate.of(2023, 7, 3);
+        LocalDate old = LocalDate.of(2001, 1, 1);
+        when(exchangeRateHistoryService.ratesOn(Set.of(june, july, old))).thenReturn(Map.of(
+                june, Map.of("USD", 1.0, "BRL", 4.0),
+                july, Map.of("USD", 1.0, "BRL", 5.0)));
+
+        List<CurrencyConversionRequest> requests = Arrays.asList(
+                new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD", june),
+                new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD", july),
+                new CurrencyConversionRequest(new BigDecimal("10.00"), "USD", "BRL", june),
+                new CurrencyConversionRequest(new BigDecimal("10.00"), "BRL", "EUR", june),
+                new CurrencyConversionRequest(new BigDecimal("10.00"), "BRL", "USD", old));
+
+        // Execução
+        CurrencyBatchConversionResponse response = currencyService.convertBatch(requests);
+
+        // Verificações
+        assertEquals(3, response.getConverted());
+        assertEquals(new BigDecimal("25.00"), response.getResults().get(0).getConvertedAmount());
+        assertEquals(new BigDecimal("20.00"), response.getResults().get(1).getConvertedAmount());
+        assertEquals(new BigDecimal("40.00"), response.getResults().get(2).getConvertedAmount());
+        assertEquals("Moeda não suportada", response.getResults().get(3).getError());
+        assertEquals("Taxa de câmbio indisponível para a data", response.getResults().get(4).getError());
+        verify(exchangeRateHistoryService, times(1)).ratesOn(anyCollection());
+        verify(exchangeRateHistoryService, never()).crossRatesOn(any());
+    }
+
     @Test
     @DisplayName("Deve converter resumo financeiro para outra moeda")
     void shouldConvertFinancialSummary() {
@@ -182,6 +231,27 @@ public class CurrencyServiceTest {
         assertEquals(new BigDecimal("200.00").setScale(2), convertedSummary.getAchievedGoals().get(0).getCurrentAmount());
     }
 
+    @Test
+    @DisplayName("Deve reaproveitar o resumo convertido ao repetir a moeda com os mesmos dados e taxas")
+    void shouldMemoizeConvertedSummary() {
+        // Configuração
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(financialSummaryService.getFinancialSummary("testuser", start, end))
+                .thenReturn(createMockFinancialSummary());
+
+        // Execução
+        FinancialSummaryResponse usd = currencyService.convertFinancialSummary("testuser", start, end, "USD");
+        FinancialSummaryResponse eur = currencyService.convertFinancialSummary("testuser", start, end, "EUR");
+        FinancialSummaryResponse usdAgain = currencyService.convertFinancialSummary("testuser", start, end, "USD");
+
+        // Verificações
+        assertSame(usd, usdAgain);
+        assertEquals("EUR", eur.getCurrency());
+        // A troca para EUR converte o resumo base em cache; a volta para USD não converte de novo
+        verify(financialSummaryService, times(2)).getFinancialSummary("testuser", start, end);
+    }
+
     @Test
     @DisplayName("Deve retornar resumo original quando a moeda alvo é a padrão")
     void shouldReturnOriginalSummaryWhenTargetCurrencyIsDefault() {
@@ -199,6 +269,67 @@ public class CurrencyServiceTest {
         assertSame(originalSummary, result);
     }
 
+    @Test
+    @DisplayName("Deve converter com a taxa histórica quando a data é informada")
+    void shouldConvertWithHistoricalRate() {
+        // Configuração
+        LocalDate date = LocalDate.of(2023, 6, 15);
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("USD", 1.0);
+        rates.put("BRL", 4.0);
+        when(exchangeRateHistoryService.crossRatesOn(date)).thenReturn(Optional.of(CrossRateTable.of(rates)));
+
+        CurrencyConversionRequest request = new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD", date);
+
+        // Execução
+        CurrencyConversionResponse response = currencyService.convertCurrency(request);
+
+        // Verificações
+        assertEquals(new BigDecimal("25.00"), response.getConvertedAmount());
+        assertEquals(date, response.getRateDate());
+        verify(exchangeRateService, never()).getSnapshot();
+    }
+
+    @Test
+    @DisplayName("Deve recusar conversão por data sem histórico de taxas")
+    void shouldRejectConversionWithoutHistoricalRate() {
+        // Configuração
+        LocalDate date = LocalDate.of(2001, 1, 1);
+        when(exchangeRateHistoryService.crossRatesOn(date)).thenReturn(Optional.empty());
+
+        CurrencyConversionRequest request = new CurrencyConversionRequest(new BigDecimal("100.00"), "BRL", "USD", date);
+
+        // Execução e Verificação
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> currencyService.convertCurrency(request));
+        assertTrue(error.getMessage().contains("2001-01-01"));
+    }
+
+    @Test
+    @DisplayName("Deve delegar o resumo com taxas históricas ao banco passando a taxa atual como reserva")
+    void shouldConvertSummaryWithHistoricalRates() {
+        // Configuração
+        FinancialSummaryResponse historical = FinancialSummaryResponse.builder()
+                .currentBalance(new BigDecimal("210.00"))
+                .currency("USD")
+                .build();
+        when(financialSummaryService.getSummaryAtTransactionDates(
+                eq("testuser"), any(LocalDate.class), any(LocalDate.class), eq("BRL"), eq("USD"), any(BigDecimal.class)))
+                .thenReturn(historical);
+
+        // Execução
+        FinancialSummaryResponse result = currencyService.convertFinancialSummary(
+                "testuser", LocalDate.now(), LocalDate.now(), "USD", true);
+
+        // Verificações
+        assertSame(historical, result);
+        assertFalse(result.getExchangeRatesStale());
+        verify(financialSummaryService).getSummaryAtTransactionDates(
+                eq("testuser"), any(LocalDate.class), any(LocalDate.class), eq("BRL"), eq("USD"),
+                argThat(rate -> rate.compareTo(new BigDecimal("0.2")) == 0));
+        verify(financialSummaryService, never()).getFinancialSummary(anyString(), any(), any());
+    }
+
     @Test
     @DisplayName("Deve obter lista de moedas disponíveis")
     void shouldGetAvailableCurrencies() {
@@ -0,0 +1,80 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.dto.admin.ExchangeRateBackfillRequest.DailyRates;
+import com.dashboard.financeiro.repository.ExchangeRateHistoryRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExchangeRateHistoryServiceTest {
+
+    @Mock
+    private ExchangeRateHistoryRepository exchangeRateHistoryRepository;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @InjectMocks
+    private ExchangeRateHistoryService exchangeRateHistoryService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LocalDate day = LocalDate.of(2024, 1, 2);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exchangeRateHistoryService, "objectMapper", objectMapper);
+    }
+
+    @Test
+    @DisplayName("Deve converter para USD as taxas importadas com outra base")
+    void shouldNormalizeImportedRatesToUsd() throws Exception {
+        // Configuração: 1 EUR = 1.10 USD = 5.50 BRL
+        when(exchangeRateHistoryRepository.upsertDay(eq(day), anyString())).thenReturn(3);
+        DailyRates rates = new DailyRates(day, "EUR",
+                Map.of("USD", new BigDecimal("1.10"), "BRL", new BigDecimal("5.50")));
+
+        // Execução
+        exchangeRateHistoryService.importDays(List.of(rates));
+
+        // Verificações
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(exchangeRateHistoryRepository).upsertDay(eq(day), json.capture());
+        Map<String, BigDecimal> saved = objectMapper.readValue(json.getValue(), new TypeReference<>() {});
+
+        assertEquals(0, BigDecimal.ONE.compareTo(saved.get("USD")));
+        assertEquals(0, new BigDecimal("5").compareTo(saved.get("BRL")));
+        assertEquals(0.9090909, saved.get("EUR").doubleValue(), 0.0000001);
+    }
+
+    @Test
+    @DisplayName("Deve recusar taxas com outra base sem a taxa do USD")
+    void shouldRejectNonUsdBaseWithoutUsdRate() {
+        // Configuração
+        DailyRates rates = new DailyRates(day, "EUR", Map.of("BRL", new BigDecimal("5.50")));
+
+        // Execução e verificações
+        assertThrows(IllegalArgumentException.class, () -> exchangeRateHistoryService.importDays(List.of(rates)));
+        verify(exchangeRateHistoryRepository, never()).upsertDay(any(), any());
+    }
+}
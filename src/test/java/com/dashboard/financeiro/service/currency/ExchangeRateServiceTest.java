@@ -0,0 +1,216 @@
+package com.dashboard.financeiro.service.currency;
+
+import com.dashboard.financeiro.dto.currency.ExchangeRateResponse;
+import com.dashboard.financeiro.service.currency.provider.ExchangeRateProvider;
+import com.dashboard.financeiro.service.currency.provider.FileExchangeRateProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeRateServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ExecutorService fetchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        fetchExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve fazer uma única busca para chamadas simultâneas sem taxas em memória")
+    void shouldShareSingleFetchBetweenConcurrentCallers() throws Exception {
+        // Configuração
+        CountDownLatch release = new CountDownLatch(1);
+        CountingProvider provider = new CountingProvider(() -> {
+            awaitQuietly(release);
+            return ratesResponse(5.0);
+        });
+        ExchangeRateService service = newService(provider);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExchangeRateSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(service::getSnapshot));
+            }
+
+            // Execução
+            Thread.sleep(100);
+            release.countDown();
+
+            // Verificação
+            ExchangeRateSnapshot first = results.get(0).get(2, TimeUnit.SECONDS);
+            for (Future<ExchangeRateSnapshot> result : results) {
+                assertSame(first, result.get(2, TimeUnit.SECONDS));
+            }
+            assertEquals(1, provider.calls.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve servir as taxas vencidas marcadas como desatualizadas quando a atualização falha")
+    void shouldServeStaleRatesWhenRefreshFails() throws Exception {
+        // Configuração: última resposta válida gravada há dois dias
+        ExchangeRateResponse saved = ratesResponse(5.0);
+        saved.setTimestamp(Instant.now().minusSeconds(2 * 24 * 3600).getEpochSecond());
+        objectMapper.writeValue(tempDir.resolve("exchange-rates.json").toFile(), saved);
+
+        CountingProvider provider = new CountingProvider(() -> {
+            throw new IllegalStateException("API indisponível");
+        });
+        ExchangeRateService service = newService(provider);
+        service.loadLastKnownGood();
+
+        // Execução
+        ExchangeRateSnapshot snapshot = service.getSnapshot();
+
+        // Verificação
+        assertTrue(snapshot.isStale());
+        assertEquals(5.0, snapshot.getRate("BRL"));
+        assertEquals(1, provider.calls.get());
+    }
+
+    @Test
+    @DisplayName("Deve iniciar com a última resposta gravada em disco sem consultar o provedor")
+    void shouldStartFromLastKnownGoodSnapshot() throws Exception {
+        // Configuração: o provedor de arquivo substitui a API externa
+        Path ratesFile = tempDir.resolve("latest.json");
+        objectMapper.writeValue(ratesFile.toFile(), ratesResponse(5.2));
+
+        FileExchangeRateProvider fileProvider = new FileExchangeRateProvider();
+        ReflectionTestUtils.setField(fileProvider, "path", ratesFile.toString());
+        ReflectionTestUtils.setField(fileProvider, "objectMapper", objectMapper);
+
+        newService(fileProvider).getSnapshot();
+
+        CountingProvider failing = new CountingProvider(() -> {
+            throw new IllegalStateException("API indisponível");
+        });
+        ExchangeRateService restarted = newService(failing);
+
+        // Execução
+        restarted.loadLastKnownGood();
+        ExchangeRateSnapshot snapshot = restarted.getSnapshot();
+
+        // Verificação
+        assertFalse(snapshot.isStale());
+        assertEquals(5.2, snapshot.getRate("BRL"));
+        assertEquals(1.0, snapshot.getRate("USD"));
+        assertEquals(0, failing.calls.get());
+    }
+
+    @Test
+    @DisplayName("Deve permitir uma nova busca depois de uma busca encerrada por Error")
+    void shouldClearInFlightFetchAfterError() throws Exception {
+        // Configuração: a primeira busca lança um Error, a segunda responde
+        AtomicInteger attempts = new AtomicInteger();
+        CountingProvider provider = new CountingProvider(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new NoClassDefFoundError("cliente HTTP");
+            }
+            return ratesResponse(5.0);
+        });
+        ExchangeRateService service = newService(provider);
+
+        // Execução
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> service.refresh().get(2, TimeUnit.SECONDS));
+        ExchangeRateSnapshot snapshot = service.refresh().get(2, TimeUnit.SECONDS);
+
+        // Verificações
+        assertInstanceOf(NoClassDefFoundError.class, failure.getCause());
+        assertEquals(5.0, snapshot.getRate("BRL"));
+        assertEquals(2, provider.calls.get());
+    }
+
+    private ExchangeRateService newService(ExchangeRateProvider provider) {
+        ExchangeRateService service = new ExchangeRateService();
+        ReflectionTestUtils.setField(service, "exchangeRateProvider", provider);
+        ReflectionTestUtils.setField(service, "exchangeRateExecutor", fetchExecutor);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "refreshAheadSeconds", 300L);
+        ReflectionTestUtils.setField(service, "staleWaitMs", 200L);
+        ReflectionTestUtils.setField(service, "fetchTimeoutMs", 2000L);
+        ReflectionTestUtils.setField(service, "snapshotPath", tempDir.resolve("exchange-rates.json").toString());
+        return service;
+    }
+
+    private ExchangeRateResponse ratesResponse(double brlRate) {
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("USD", 1.0);
+        rates.put("BRL", brlRate);
+        rates.put("EUR", 0.85);
+
+        ExchangeRateResponse response = new ExchangeRateResponse();
+        response.setBase("USD");
+        response.setTimestamp(Instant.now().getEpochSecond());
+        response.setRates(rates);
+        return response;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Provedor de teste que conta quantas buscas foram feitas
+     */
+    private static class CountingProvider implements ExchangeRateProvider {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Supplier<ExchangeRateResponse> response;
+
+        CountingProvider(Supplier<ExchangeRateResponse> response) {
+            this.response = response;
+        }
+
+        @Override
+        public ExchangeRateResponse fetchLatest() {
+            calls.incrementAndGet();
+            return response.get();
+        }
+
+        @Override
+        public String getName() {
+            return "teste";
+        }
+    }
+}
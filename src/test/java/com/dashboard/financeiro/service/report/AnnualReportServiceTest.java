@@ -0,0 +1,157 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.repository.TransactionRepository;
+import com.dashboard.financeiro.repository.UserRepository;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AnnualReportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private FinancialReportService financialReportService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private AnnualReportService annualReportService;
+
+    private final LocalDate startDate = LocalDate.of(2023, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2023, 12, 31);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Cache real em disco, para conferir o reaproveitamento das seções
+        ReportCacheService reportCacheService = new ReportCacheService();
+        ReflectionTestUtils.setField(reportCacheService, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(reportCacheService, "maxBytes", 64L * 1024 * 1024);
+        reportCacheService.init();
+
+        ReflectionTestUtils.setField(annualReportService, "reportCacheService", reportCacheService);
+        ReflectionTestUtils.setField(annualReportService, "annualSectionExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(annualReportService, "sectionedMinTransactions", 100L);
+
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+        // Substituído no teste de falha da seção
+        lenient().doAnswer(invocation -> writePage(invocation.getArgument(3), "Mês " + invocation.getArgument(1)))
+                .when(financialReportService).writeFinancialReport(eq("testuser"), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve refazer apenas a seção do mês cujas transações mudaram")
+    void shouldRebuildOnlyChangedMonth() throws Exception {
+        // Configuração
+        stubCover();
+        when(transactionRepository.fingerprintMonths(1L, startDate, endDate)).thenReturn(
+                List.of(month(3, 80, "aaa"), month(12, 40, "bbb")),
+                List.of(month(3, 80, "aaa"), month(12, 41, "ccc")));
+
+        // Execução
+        annualReportService.writeAnnualReport("testuser", startDate, endDate, new ByteArrayOutputStream());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        annualReportService.writeAnnualReport("testuser", startDate, endDate, output);
+
+        // Verificações: capa + março + dezembro
+        PdfReader reader = new PdfReader(output.toByteArray());
+        assertEquals(3, reader.getNumberOfPages());
+        reader.close();
+
+        verify(financialReportService, times(1)).writeFinancialReport(
+                eq("testuser"), eq(LocalDate.of(2023, 3, 1)), eq(LocalDate.of(2023, 3, 31)), any());
+        verify(financialReportService, times(2)).writeFinancialReport(
+                eq("testuser"), eq(LocalDate.of(2023, 12, 1)), eq(LocalDate.of(2023, 12, 31)), any());
+        verify(financialReportService, times(2)).writeAnnualCover(eq("testuser"), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve gerar documento único quando o ano tem poucas transações")
+    void shouldWriteSingleDocumentForLightUsers() throws Exception {
+        // Configuração
+        when(transactionRepository.fingerprintMonths(1L, startDate, endDate))
+                .thenReturn(List.<Object[]>of(month(5, 10, "aaa")));
+
+        // Execução
+        annualReportService.writeAnnualReport("testuser", startDate, endDate, new ByteArrayOutputStream());
+
+        // Verificações
+        verify(financialReportService).writeFinancialReport(eq("testuser"), eq(startDate), eq(endDate), any());
+        verify(financialReportService, never()).writeAnnualCover(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve propagar o Error de uma seção em vez de esperar por ela para sempre")
+    void shouldFailWhenSectionThrowsError() throws Exception {
+        // Configuração: seções geradas por uma thread do pool
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        ReflectionTestUtils.setField(annualReportService, "annualSectionExecutor", pool);
+        // A capa pode não chegar a ser gerada quando a seção do mês falha antes
+        lenient().doAnswer(invocation -> writePage(invocation.getArgument(3), "Capa"))
+                .when(financialReportService).writeAnnualCover(eq("testuser"), any(), any(), any());
+        when(transactionRepository.fingerprintMonths(1L, startDate, endDate))
+                .thenReturn(List.<Object[]>of(month(3, 150, "aaa")));
+        doThrow(new NoClassDefFoundError("java/awt/Font"))
+                .when(financialReportService).writeFinancialReport(eq("testuser"), any(), any(), any());
+
+        try {
+            // Execução e verificação
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(NoClassDefFoundError.class,
+                    () -> annualReportService.writeAnnualReport("testuser", startDate, endDate,
+                            new ByteArrayOutputStream())));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void stubCover() throws Exception {
+        doAnswer(invocation -> writePage(invocation.getArgument(3), "Capa"))
+                .when(financialReportService).writeAnnualCover(eq("testuser"), any(), any(), any());
+    }
+
+    private Object[] month(int month, long transactions, String fingerprint) {
+        return new Object[]{2023, month, transactions, fingerprint};
+    }
+
+    private Void writePage(OutputStream outputStream, String text) throws Exception {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        writer.setCloseStream(false);
+        document.open();
+        document.add(new Paragraph(text));
+        document.close();
+        return null;
+    }
+}
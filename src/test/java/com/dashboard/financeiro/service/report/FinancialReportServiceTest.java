@@ -0,0 +1,179 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.transaction.TransactionView;
+import com.dashboard.financeiro.model.Category.CategoryType;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import com.dashboard.financeiro.repository.TransactionRepository;
+import com.dashboard.financeiro.repository.UserRepository;
+import com.dashboard.financeiro.service.chart.ChartRenderingService;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FinancialReportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private FinancialReportService financialReportService;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 12, 31);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(financialReportService, "tableFlushRows", 50);
+
+        // Renderização real dos gráficos, executada na própria thread
+        ChartRenderingService chartRenderingService = new ChartRenderingService();
+        ReflectionTestUtils.setField(chartRenderingService, "chartRenderExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(chartRenderingService, "cacheMaxBytes", 8L * 1024 * 1024);
+        ReflectionTestUtils.setField(chartRenderingService, "timeoutMs", 10000L);
+        chartRenderingService.init();
+        ReflectionTestUtils.setField(financialReportService, "chartRenderingService", chartRenderingService);
+
+        when(userRepository.findIdByUsername("testuser")).thenReturn(Optional.of(1L));
+    }
+
+    @Test
+    @DisplayName("Deve escrever o PDF no stream consumindo o cursor e sem fechar o stream")
+    void shouldStreamReportFromCursor() throws Exception {
+        // Configuração
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        Stream<TransactionView> cursor = IntStream.range(0, 500)
+                .mapToObj(this::createView)
+                .onClose(() -> cursorClosed.set(true));
+        when(transactionRepository.streamViewsForReport(1L, startDate, endDate)).thenReturn(cursor);
+
+        AtomicBoolean outputClosed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                outputClosed.set(true);
+            }
+        };
+
+        // Execução
+        financialReportService.writeFinancialReport("testuser", startDate, endDate, output);
+
+        // Verificações
+        PdfReader reader = new PdfReader(output.toByteArray());
+        assertTrue(reader.getNumberOfPages() > 1, "A tabela deve continuar nas páginas seguintes");
+        reader.close();
+        assertTrue(cursorClosed.get());
+        assertFalse(outputClosed.get());
+    }
+
+    @Test
+    @DisplayName("Deve somar o resumo na leitura da tabela e embutir os gráficos como vetor")
+    void shouldBuildSummaryFromCursorAndEmbedVectorCharts() throws Exception {
+        // Configuração: uma única leitura fornece a tabela, o resumo e os gráficos
+        when(transactionRepository.streamViewsForReport(1L, startDate, endDate)).thenReturn(Stream.of(
+                createView(1L, "150.00", TransactionType.EXPENSE, 10L, "Alimentação"),
+                createView(2L, "100.00", TransactionType.EXPENSE, 11L, "Transporte"),
+                createView(3L, "50.00", TransactionType.EXPENSE, 10L, "Alimentação"),
+                createView(4L, "1000.00", TransactionType.INCOME, 20L, "Salário")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Execução
+        financialReportService.writeFinancialReport("testuser", startDate, endDate, output);
+
+        // Verificações
+        PdfReader reader = new PdfReader(output.toByteArray());
+        int forms = 0;
+        int images = 0;
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            PdfDictionary xObjects = reader.getPageN(page).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+            if (xObjects == null) {
+                continue;
+            }
+            for (PdfName name : xObjects.getKeys()) {
+                PdfName subtype = xObjects.getAsStream(name).getAsName(PdfName.SUBTYPE);
+                if (PdfName.FORM.equals(subtype)) {
+                    forms++;
+                } else if (PdfName.IMAGE.equals(subtype)) {
+                    images++;
+                }
+            }
+        }
+        String firstPage = PdfTextExtractor.getTextFromPage(reader, 1);
+        reader.close();
+
+        // Três valores do resumo e dois gráficos
+        assertEquals(5, forms);
+        assertEquals(0, images);
+        assertTrue(firstPage.contains("700,00"));
+        assertTrue(firstPage.contains("1.000,00"));
+        assertTrue(firstPage.contains("300,00"));
+        verify(transactionRepository, times(1)).streamViewsForReport(1L, startDate, endDate);
+        verify(userRepository, times(1)).findIdByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Deve concluir o relatório com um aviso quando o gráfico não puder ser renderizado")
+    void shouldReplaceUnavailableChartWithNotice() throws Exception {
+        // Configuração: pool de gráficos cheio
+        ChartRenderingService chartRenderingService = (ChartRenderingService) ReflectionTestUtils.getField(
+                financialReportService, "chartRenderingService");
+        ReflectionTestUtils.setField(chartRenderingService, "chartRenderExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("Pool cheio");
+        });
+        when(transactionRepository.streamViewsForReport(1L, startDate, endDate)).thenReturn(Stream.of(
+                createView(1L, "150.00", TransactionType.EXPENSE, 10L, "Alimentação")));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Execução
+        financialReportService.writeFinancialReport("testuser", startDate, endDate, output);
+
+        // Verificações
+        PdfReader reader = new PdfReader(output.toByteArray());
+        StringBuilder text = new StringBuilder();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            text.append(PdfTextExtractor.getTextFromPage(reader, page));
+        }
+        reader.close();
+        assertTrue(text.toString().contains("Transação 1"));
+        assertTrue(text.toString().contains("gráfico indisponível"));
+    }
+
+    private TransactionView createView(Long id, String amount, TransactionType type, Long categoryId, String categoryName) {
+        CategoryType categoryType = type == TransactionType.INCOME ? CategoryType.INCOME : CategoryType.EXPENSE;
+        return new TransactionView(id, new BigDecimal(amount), type, startDate, "Transação " + id,
+                categoryId, categoryName, categoryType, "BRL", new BigDecimal(amount));
+    }
+
+    private TransactionView createView(int index) {
+        return new TransactionView((long) index, new BigDecimal("10.00"), TransactionType.EXPENSE,
+                startDate.plusDays(index % 365), "Transação " + index, 10L, "Alimentação", CategoryType.EXPENSE,
+                "BRL", new BigDecimal("10.00"));
+    }
+}
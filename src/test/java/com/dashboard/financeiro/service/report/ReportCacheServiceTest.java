@@ -0,0 +1,99 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.admin.CacheStatsResponse.CacheStats;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import com.dashboard.financeiro.service.report.ReportCacheService.ReportRenderer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportCacheServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ReportCacheService reportCacheService;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    // Conta as gerações e escreve 10 bytes
+    private final ReportRenderer renderer = outputStream -> {
+        renders.incrementAndGet();
+        outputStream.write("%PDF-teste".getBytes());
+    };
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reportCacheService = new ReportCacheService();
+        ReflectionTestUtils.setField(reportCacheService, "directory", tempDir.toString());
+        // Cabem dois relatórios de 10 bytes
+        ReflectionTestUtils.setField(reportCacheService, "maxBytes", 25L);
+        reportCacheService.init();
+    }
+
+    @Test
+    @DisplayName("Deve gerar o PDF uma única vez e servir as próximas chamadas do disco")
+    void shouldServeSecondRequestFromDisk() throws Exception {
+        // Execução
+        CachedReport first = reportCacheService.getOrCreate("janeiro", renderer);
+        CachedReport second = reportCacheService.getOrCreate("janeiro", renderer);
+
+        // Verificações
+        assertEquals(first.getFile(), second.getFile());
+        assertTrue(Files.exists(first.getFile()));
+        assertEquals(1, renders.get());
+        assertTrue(reportCacheService.find("janeiro").isPresent());
+        assertTrue(reportCacheService.find("fevereiro").isEmpty());
+
+        CacheStats stats = reportCacheService.stats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Deve copiar o PDF para a resposta enquanto grava o arquivo e, depois, a partir do disco")
+    void shouldCopyToResponseWhileFillingCache() throws Exception {
+        // Execução
+        ByteArrayOutputStream generating = new ByteArrayOutputStream();
+        CachedReport report = reportCacheService.getOrCreate("janeiro", renderer, generating);
+        ByteArrayOutputStream fromDisk = new ByteArrayOutputStream();
+        reportCacheService.getOrCreate("janeiro", renderer, fromDisk);
+
+        // Verificações
+        assertEquals("%PDF-teste", generating.toString());
+        assertEquals("%PDF-teste", fromDisk.toString());
+        assertArrayEquals(generating.toByteArray(), Files.readAllBytes(report.getFile()));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    @DisplayName("Deve remover o relatório usado há mais tempo ao passar do limite de bytes")
+    void shouldEvictLeastRecentlyUsedReport() throws Exception {
+        // Configuração: janeiro é consultado de novo e passa a ser o mais recente
+        CachedReport jan = reportCacheService.getOrCreate("janeiro", renderer);
+        CachedReport feb = reportCacheService.getOrCreate("fevereiro", renderer);
+        reportCacheService.getOrCreate("janeiro", renderer);
+
+        // Execução
+        CachedReport mar = reportCacheService.getOrCreate("marco", renderer);
+
+        // Verificações
+        assertTrue(Files.exists(jan.getFile()));
+        assertFalse(Files.exists(feb.getFile()));
+        assertTrue(Files.exists(mar.getFile()));
+
+        CacheStats stats = reportCacheService.stats();
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getEstimatedSize());
+        assertEquals(20L, stats.getSizeBytes());
+    }
+}
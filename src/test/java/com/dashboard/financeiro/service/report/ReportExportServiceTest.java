@@ -0,0 +1,145 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.transaction.TransactionView;
+import com.dashboard.financeiro.model.Category.CategoryType;
+import com.dashboard.financeiro.model.Transaction.TransactionType;
+import com.dashboard.financeiro.service.FinancialSummaryService;
+import com.dashboard.financeiro.service.TransactionService;
+import com.dashboard.financeiro.service.report.ReportExportService.ExportFormat;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportExportServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private FinancialSummaryService financialSummaryService;
+
+    @InjectMocks
+    private ReportExportService reportExportService;
+
+    private final LocalDate startDate = LocalDate.of(2024, 1, 1);
+    private final LocalDate endDate = LocalDate.of(2024, 1, 31);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportExportService, "xlsxWindowRows", 100);
+    }
+
+    // Duas transações, uma delas com vírgula e aspas na descrição
+    private void stubTransactions() {
+        doAnswer(invocation -> {
+            Consumer<TransactionView> consumer = invocation.getArgument(4);
+            consumer.accept(new TransactionView(1L, new BigDecimal("1500.50"), TransactionType.INCOME,
+                    LocalDate.of(2024, 1, 5), "Salário", 10L, "Salário", CategoryType.INCOME, "BRL", null));
+            consumer.accept(new TransactionView(2L, new BigDecimal("35.00"), TransactionType.EXPENSE,
+                    LocalDate.of(2024, 1, 7), "Pizza \"grande\", borda recheada", 20L, "Alimentação",
+                    CategoryType.EXPENSE, "USD", new BigDecimal("7.00")));
+            return null;
+        }).when(transactionService).streamByFilters(eq("testuser"), isNull(), eq(startDate), eq(endDate), any());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Mercado|Mercado",
+            "Aluguel, condomínio|\"Aluguel, condomínio\"",
+            "Pizza \"grande\"|\"Pizza \"\"grande\"\"\"",
+            "12.50|12.50"
+    })
+    @DisplayName("Deve escapar vírgulas e aspas no CSV")
+    void shouldEscapeCsvFields(String value, String expected) {
+        assertEquals(expected, ReportExportService.csvField(value));
+    }
+
+    @Test
+    @DisplayName("Deve manter quebras de linha entre aspas e valores sem notação científica")
+    void shouldQuoteLineBreaks() {
+        assertEquals("\"linha 1\r\nlinha 2\"", ReportExportService.csvField("linha 1\r\nlinha 2"));
+        assertEquals("1500.5", ReportExportService.csvField(new BigDecimal("1.5005E+3")));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "=SOMA(A1:A9)|'=SOMA(A1:A9)",
+            "+5511999999999|'+5511999999999",
+            "-2+3|'-2+3",
+            "@HYPERLINK|'@HYPERLINK",
+            "Mercado = feira|Mercado = feira"
+    })
+    @DisplayName("Deve neutralizar textos que seriam interpretados como fórmula pela planilha")
+    void shouldNeutralizeFormulaPrefixes(String value, String expected) {
+        assertEquals(expected, ReportExportService.csvField(value));
+    }
+
+    @Test
+    @DisplayName("Deve neutralizar tabulação inicial e manter números negativos")
+    void shouldNeutralizeTabAndKeepNegativeNumbers() {
+        assertEquals("'\tcomando", ReportExportService.csvField("\tcomando"));
+        assertEquals("-35.00", ReportExportService.csvField(new BigDecimal("-35.00")));
+    }
+
+    @Test
+    @DisplayName("Deve exportar as transações em CSV com cabeçalho e valores sem formatação local")
+    void shouldExportTransactionsAsCsv() throws Exception {
+        // Configuração
+        stubTransactions();
+
+        // Execução
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reportExportService.writeTransactions("testuser", startDate, endDate, ExportFormat.CSV, output);
+
+        // Verificações
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("\uFEFFid,data,tipo,categoria_id,categoria,descricao,valor,moeda_original,valor_original", lines[0]);
+        assertEquals("1,2024-01-05,INCOME,10,Salário,Salário,1500.50,BRL,", lines[1]);
+        assertEquals("2,2024-01-07,EXPENSE,20,Alimentação,\"Pizza \"\"grande\"\", borda recheada\",35.00,USD,7.00", lines[2]);
+    }
+
+    @Test
+    @DisplayName("Deve exportar as transações em XLSX com datas e valores numéricos")
+    void shouldExportTransactionsAsXlsx() throws Exception {
+        // Configuração
+        stubTransactions();
+
+        // Execução
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reportExportService.writeTransactions("testuser", startDate, endDate, ExportFormat.XLSX, output);
+
+        // Verificações
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Transações");
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("descricao", sheet.getRow(0).getCell(5).getStringCellValue());
+            assertEquals(LocalDate.of(2024, 1, 5), sheet.getRow(1).getCell(1).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(1500.50, sheet.getRow(1).getCell(6).getNumericCellValue(), 0.001);
+            assertNull(sheet.getRow(1).getCell(8));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportFileServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private FinancialReportService financialReportService;
+
+    @Mock
+    private AnnualReportService annualReportService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @InjectMocks
+    private ReportFileService reportFileService;
+
+    private final ReportPeriod january = ReportPeriod.custom(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReportCacheService reportCacheService = new ReportCacheService();
+        ReflectionTestUtils.setField(reportCacheService, "directory", tempDir.toString());
+        ReflectionTestUtils.setField(reportCacheService, "maxBytes", 1024L);
+        reportCacheService.init();
+        ReflectionTestUtils.setField(reportFileService, "reportCacheService", reportCacheService);
+
+        when(userDataVersionService.currentVersion("testuser")).thenReturn(1L);
+    }
+
+    @Test
+    @DisplayName("Deve gerar um novo arquivo quando a versão dos dados do usuário muda")
+    void shouldMissAfterDataVersionChange() throws Exception {
+        // Configuração
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write("%PDF-teste".getBytes());
+            return null;
+        }).when(financialReportService).writeFinancialReport(eq("testuser"), any(), any(), any());
+
+        CachedReport before = reportFileService.get("testuser", january);
+        reportFileService.get("testuser", january);
+        when(userDataVersionService.currentVersion("testuser")).thenReturn(2L);
+
+        // Execução
+        CachedReport after = reportFileService.get("testuser", january);
+
+        // Verificação
+        assertNotEquals(before.getKey(), after.getKey());
+        verify(financialReportService, times(2)).writeFinancialReport(eq("testuser"), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve montar o ano civil completo pelo serviço de relatório anual")
+    void shouldBuildCalendarYearWithAnnualService() throws Exception {
+        // Configuração
+        ReportPeriod year = ReportPeriod.custom(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write("%PDF-anual".getBytes());
+            return null;
+        }).when(annualReportService).writeAnnualReport(eq("testuser"), any(), any(), any());
+
+        // Execução
+        reportFileService.get("testuser", year);
+
+        // Verificações
+        verify(annualReportService).writeAnnualReport(eq("testuser"),
+                eq(LocalDate.of(2023, 1, 1)), eq(LocalDate.of(2023, 12, 31)), any());
+        verify(financialReportService, never()).writeFinancialReport(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.dashboard.financeiro.service.report;
+
+import com.dashboard.financeiro.dto.report.ReportPeriod;
+import com.dashboard.financeiro.service.cache.UserDataVersionService;
+import com.dashboard.financeiro.service.report.ReportCacheService.CachedReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportJobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ReportFileService reportFileService;
+
+    @Mock
+    private UserDataVersionService userDataVersionService;
+
+    @InjectMocks
+    private ReportJobService reportJobService;
+
+    // Executor manual: os jobs ficam na fila até o teste executá-los
+    private final List<Runnable> queued = new ArrayList<>();
+
+    private final ReportPeriod period = ReportPeriod.custom(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportJobService, "reportExecutor", (Executor) queued::add);
+        ReflectionTestUtils.setField(reportJobService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(reportJobService, "maxPerUser", 2);
+
+        when(userDataVersionService.currentVersion("testuser")).thenReturn(1L);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar o job em andamento para o mesmo período e versão dos dados")
+    void shouldAttachDuplicateSubmissionToActiveJob() {
+        // Execução
+        ReportJob first = reportJobService.submit("testuser", period);
+        ReportJob second = reportJobService.submit("testuser", period);
+
+        // Verificações
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+        assertEquals(ReportJob.Status.QUEUED, first.getStatus());
+    }
+
+    @Test
+    @DisplayName("Deve recusar novos jobs quando o usuário atingir o limite de jobs ativos")
+    void shouldRejectWhenUserLimitReached() {
+        // Configuração
+        reportJobService.submit("testuser", period);
+        reportJobService.submit("testuser", ReportPeriod.custom(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+
+        // Execução e verificação
+        assertThrows(IllegalStateException.class, () -> reportJobService.submit("testuser",
+                ReportPeriod.custom(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31))));
+        assertEquals(2, queued.size());
+    }
+
+    @Test
+    @DisplayName("Deve apontar para o PDF do cache de relatórios e liberar a vaga do usuário ao concluir")
+    void shouldWriteReportToDiskAndComplete() throws Exception {
+        // Configuração: o arquivo vem do cache compartilhado com os downloads síncronos
+        Path file = Files.write(tempDir.resolve("chave.pdf"), "%PDF-teste".getBytes());
+        when(reportFileService.get("testuser", period)).thenReturn(new CachedReport("chave", file, 10));
+
+        ReportJob job = reportJobService.submit("testuser", period);
+
+        // Execução
+        queued.remove(0).run();
+
+        // Verificações
+        assertEquals(ReportJob.Status.COMPLETED, job.getStatus());
+        assertTrue(Files.exists(job.getFile()));
+        assertEquals(file, job.getFile());
+        assertEquals(10, job.getSizeBytes());
+        assertEquals("chave", job.getReportKey());
+        assertNotNull(job.getExpiresAt());
+        assertSame(job, reportJobService.submit("testuser", period));
+        assertTrue(reportJobService.find(job.getId(), "outrousuario").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve marcar o job como falho e liberar a vaga mesmo quando a geração lança um Error")
+    void shouldFailJobOnError() throws Exception {
+        // Configuração
+        when(reportFileService.get("testuser", period)).thenThrow(new OutOfMemoryError("Java heap space"));
+        ReportJob job = reportJobService.submit("testuser", period);
+
+        // Execução
+        assertThrows(OutOfMemoryError.class, () -> queued.remove(0).run());
+
+        // Verificações
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertNotNull(job.getExpiresAt());
+        assertNotSame(job, reportJobService.submit("testuser", period));
+    }
+}
@@ -0,0 +1,65 @@
+package com.dashboard.financeiro.service.rollup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollupRangeTest {
+
+    @Test
+    @DisplayName("Deve atender meses completos apenas pelo rollup")
+    void shouldUseOnlyRollupForWholeMonths() {
+        // Execução
+        RollupRange range = RollupRange.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31));
+
+        // Verificação
+        assertTrue(range.hasFullMonths());
+        assertEquals(202401, range.getFromMonth());
+        assertEquals(202403, range.getToMonth());
+        assertFalse(range.hasPartialEdges());
+    }
+
+    @Test
+    @DisplayName("Deve separar as bordas de meses parciais")
+    void shouldSplitPartialEdges() {
+        // Execução
+        RollupRange range = RollupRange.of(LocalDate.of(2023, 12, 10), LocalDate.of(2024, 3, 15));
+
+        // Verificação
+        assertEquals(202401, range.getFromMonth());
+        assertEquals(202402, range.getToMonth());
+        assertEquals(LocalDate.of(2023, 12, 10), range.getHeadStart());
+        assertEquals(LocalDate.of(2023, 12, 31), range.getHeadEnd());
+        assertEquals(LocalDate.of(2024, 3, 1), range.getTailStart());
+        assertEquals(LocalDate.of(2024, 3, 15), range.getTailEnd());
+    }
+
+    @Test
+    @DisplayName("Deve usar apenas transações brutas quando não há mês completo")
+    void shouldUseOnlyRawRowsWithoutWholeMonth() {
+        // Execução
+        RollupRange range = RollupRange.of(LocalDate.of(2024, 2, 5), LocalDate.of(2024, 2, 20));
+
+        // Verificação
+        assertFalse(range.hasFullMonths());
+        assertTrue(range.hasPartialEdges());
+        assertEquals(LocalDate.of(2024, 2, 5), range.getHeadStart());
+        assertEquals(LocalDate.of(2024, 2, 20), range.getHeadEnd());
+        assertTrue(range.getTailStart().isAfter(range.getTailEnd()));
+    }
+
+    @Test
+    @DisplayName("Deve reconhecer o fim de fevereiro em ano bissexto")
+    void shouldHandleLeapYearMonthEnd() {
+        // Execução
+        RollupRange range = RollupRange.of(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+
+        // Verificação
+        assertEquals(202402, range.getFromMonth());
+        assertEquals(202402, range.getToMonth());
+        assertFalse(range.hasPartialEdges());
+    }
+}
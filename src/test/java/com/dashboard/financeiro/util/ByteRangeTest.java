@@ -0,0 +1,65 @@
+package com.dashboard.financeiro.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteRangeTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @Test
+    @DisplayName("Deve interpretar intervalos com início, fim aberto e sufixo")
+    public void shouldParseSingleRanges() {
+        ByteRange range = ByteRange.parse("bytes=0-99", 1000).orElseThrow();
+        assertEquals(0, range.getStart());
+        assertEquals(99, range.getEnd());
+        assertEquals("bytes 0-99/1000", range.contentRange(1000));
+
+        ByteRange open = ByteRange.parse("bytes=500-", 1000).orElseThrow();
+        assertEquals(500, open.length());
+
+        ByteRange suffix = ByteRange.parse("bytes=-100", 1000).orElseThrow();
+        assertEquals(900, suffix.getStart());
+        assertEquals(999, suffix.getEnd());
+
+        ByteRange clamped = ByteRange.parse("bytes=900-5000", 1000).orElseThrow();
+        assertEquals(999, clamped.getEnd());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar cabeçalhos ausentes, malformados ou com vários intervalos")
+    public void shouldIgnoreUnsupportedRanges() {
+        assertTrue(ByteRange.parse(null, 1000).isEmpty());
+        assertTrue(ByteRange.parse("items=0-10", 1000).isEmpty());
+        assertTrue(ByteRange.parse("bytes=0-10,20-30", 1000).isEmpty());
+        assertTrue(ByteRange.parse("bytes=abc-", 1000).isEmpty());
+        assertTrue(ByteRange.parse("bytes=50-10", 1000).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve recusar intervalos que começam depois do fim do arquivo")
+    public void shouldRejectUnsatisfiableRange() {
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.parse("bytes=1000-", 1000));
+        assertThrows(IllegalArgumentException.class, () -> ByteRange.parse("bytes=1200-1300", 1000));
+    }
+
+    @Test
+    @DisplayName("Deve aceitar o intervalo apenas quando o If-Range ainda corresponde ao arquivo")
+    public void shouldCheckIfRange() {
+        long lastModified = Instant.parse("2024-05-10T12:00:00Z").toEpochMilli();
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(lastModified).atOffset(ZoneOffset.UTC));
+
+        assertTrue(ByteRange.ifRangeMatches(null, ETAG, lastModified));
+        assertTrue(ByteRange.ifRangeMatches(ETAG, ETAG, lastModified));
+        assertTrue(ByteRange.ifRangeMatches(date, ETAG, lastModified));
+        assertFalse(ByteRange.ifRangeMatches("\"old\"", ETAG, lastModified));
+        assertFalse(ByteRange.ifRangeMatches("W/\"abc123\"", ETAG, lastModified));
+        assertFalse(ByteRange.ifRangeMatches(date, ETAG, lastModified + 60000));
+    }
+}
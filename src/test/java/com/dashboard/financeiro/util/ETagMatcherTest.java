@@ -0,0 +1,29 @@
+package com.dashboard.financeiro.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagMatcherTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @Test
+    @DisplayName("Deve reconhecer o ETag em listas, formas fracas e curinga")
+    public void shouldMatchKnownEtags() {
+        assertTrue(ETagMatcher.matches("\"abc123\"", ETAG));
+        assertTrue(ETagMatcher.matches("\"old\", \"abc123\"", ETAG));
+        assertTrue(ETagMatcher.matches("W/\"abc123\"", ETAG));
+        assertTrue(ETagMatcher.matches("*", ETAG));
+    }
+
+    @Test
+    @DisplayName("Não deve reconhecer ETags diferentes ou cabeçalho ausente")
+    public void shouldNotMatchOtherEtags() {
+        assertFalse(ETagMatcher.matches(null, ETAG));
+        assertFalse(ETagMatcher.matches("", ETAG));
+        assertFalse(ETagMatcher.matches("\"old\"", ETAG));
+        assertFalse(ETagMatcher.matches("abc123", ETAG));
+    }
+}
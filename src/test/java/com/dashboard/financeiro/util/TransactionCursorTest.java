@@ -0,0 +1,36 @@
+package com.dashboard.financeiro.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionCursorTest {
+
+    @Test
+    @DisplayName("Deve codificar e decodificar o cursor sem perda")
+    public void shouldRoundTripCursor() {
+        // Configuração
+        TransactionCursor cursor = new TransactionCursor(LocalDate.of(2024, 3, 15), 123456789L);
+
+        // Execução
+        String token = cursor.encode();
+        TransactionCursor decoded = TransactionCursor.decode(token);
+
+        // Verificação
+        assertFalse(token.contains("2024"), "O token deve ser opaco");
+        assertEquals(LocalDate.of(2024, 3, 15), decoded.getDate());
+        assertEquals(123456789L, decoded.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc", "MjAyNC0wMy0xNQ", "MjAyNC0xMy0wMTox", "MjAyNC0wMy0xNTp4"})
+    @DisplayName("Deve rejeitar tokens inválidos")
+    public void shouldRejectInvalidTokens(String token) {
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode(token));
+    }
+}